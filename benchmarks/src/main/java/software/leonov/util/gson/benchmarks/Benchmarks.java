@@ -0,0 +1,33 @@
+package software.leonov.util.gson.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks uber-jar.
+ * <p>
+ * Accepts the same command line options as {@code org.openjdk.jmh.Main} but always attaches the {@link GCProfiler} so
+ * that every result reports the number of bytes allocated per operation ({@code gc.alloc.rate.norm}) alongside the
+ * throughput and latency percentiles.
+ * <p>
+ * For example: <pre>
+ *   mvn -f benchmarks/pom.xml package
+ *   java -jar benchmarks/target/benchmarks.jar MultimapBenchmark -p size=1MB
+ * </pre>
+ * 
+ * @author Zhenya Leonov
+ */
+public final class Benchmarks {
+
+    private Benchmarks() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final Options options = new OptionsBuilder().parent(new CommandLineOptions(args)).addProfiler(GCProfiler.class).build();
+        new Runner(options).run();
+    }
+
+}
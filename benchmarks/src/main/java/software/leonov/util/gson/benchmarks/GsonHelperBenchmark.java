@@ -0,0 +1,165 @@
+package software.leonov.util.gson.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ListMultimap;
+import com.google.common.io.CharStreams;
+import com.google.gson.JsonElement;
+import com.google.gson.internal.bind.JsonTreeReader;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import software.leonov.util.gson.GsonHelper;
+
+/**
+ * Measures the {@link GsonHelper} tree and streaming entry points against a compact document consisting of an array of
+ * flat records with a nested object and a short array each.
+ * 
+ * @author Zhenya Leonov
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class GsonHelperBenchmark {
+
+    private static final Type ELEMENTS = new TypeToken<List<JsonElement>>() {
+    }.getType();
+
+    @Param({ "1KB", "1MB", "100MB" })
+    public String size;
+
+    private String      json;
+    private byte[]      bytes;
+    private JsonElement tree;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        json  = records(Payloads.units(size, n -> records(n).length()));
+        bytes = json.getBytes(StandardCharsets.UTF_8);
+        tree  = GsonHelper.parseJson(json);
+    }
+
+    /**
+     * Returns a compact JSON array of the specified number of records.
+     * 
+     * @param count the number of records
+     * @return a compact JSON array of the specified number of records
+     */
+    static String records(final int count) {
+        final StringWriter writer = new StringWriter();
+        try (final JsonWriter out = new JsonWriter(writer)) {
+            out.setSerializeNulls(true);
+            out.beginArray();
+            for (int i = 0; i < count; i++) {
+                out.beginObject();
+                out.name("id").value(i);
+                out.name("name").value("record-" + i);
+                out.name("score").value(i * 1.5);
+                out.name("active").value(i % 2 == 0);
+                out.name("tags").beginArray().value("alpha").value("beta").value(i % 7).endArray();
+                out.name("nested").beginObject().name("x").value(i * 31L).name("y").nullValue().endObject();
+                out.endObject();
+            }
+            out.endArray();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+
+    @Benchmark
+    public JsonElement parseJson() {
+        return GsonHelper.parseJson(json);
+    }
+
+    @Benchmark
+    public String parseJsonLazily() {
+        return GsonHelper.parseJsonLazily(json).get(0).get("name").getAsString();
+    }
+
+    @Benchmark
+    public JsonElement parseJsonInputStream() throws IOException {
+        return GsonHelper.parseJson(new ByteArrayInputStream(bytes));
+    }
+
+    @Benchmark
+    public JsonElement parseJsonBytes() {
+        return GsonHelper.parseJson(bytes);
+    }
+
+    @Benchmark
+    public List<JsonElement> fromJsonArray() {
+        return GsonHelper.fromJson(bytes, ELEMENTS);
+    }
+
+    @Benchmark
+    public List<JsonElement> parseArrayParallel() {
+        return GsonHelper.parseArrayParallel(bytes, JsonElement.class);
+    }
+
+    @Benchmark
+    public ListMultimap<String, JsonElement> extract() throws IOException {
+        return GsonHelper.extract(new JsonReader(new StringReader(json)), "/0/name", "$[1].nested.x", "$[2].tags[*]");
+    }
+
+    @Benchmark
+    public JsonWriter copy() throws IOException {
+        return GsonHelper.copy(new JsonReader(new StringReader(json)), new JsonWriter(CharStreams.nullWriter()));
+    }
+
+    @Benchmark
+    public JsonWriter copyNumberLexemes() throws IOException {
+        return GsonHelper.copy(new JsonReader(new StringReader(json)), new JsonWriter(CharStreams.nullWriter()), true);
+    }
+
+    @Benchmark
+    public JsonWriter writeElement() throws IOException {
+        return GsonHelper.writeElement(tree, new JsonWriter(CharStreams.nullWriter()));
+    }
+
+    @Benchmark
+    public JsonWriter writeElementTreeReader() throws IOException {
+        return GsonHelper.copy(new JsonTreeReader(tree), new JsonWriter(CharStreams.nullWriter()));
+    }
+
+    @Benchmark
+    public String prettifyText() {
+        return GsonHelper.prettify(json);
+    }
+
+    @Benchmark
+    public String minifyText() {
+        return GsonHelper.minify(json);
+    }
+
+    @Benchmark
+    public String prettifyElement() {
+        return GsonHelper.prettify(tree);
+    }
+
+}
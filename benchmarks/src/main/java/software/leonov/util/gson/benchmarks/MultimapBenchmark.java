@@ -0,0 +1,93 @@
+package software.leonov.util.gson.benchmarks;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Multimap;
+import com.google.common.io.CharStreams;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import software.leonov.util.gson.MultimapTypeAdapter;
+
+/**
+ * Measures {@link MultimapTypeAdapter} serialization and deserialization.
+ * <p>
+ * The {@code plain} key form uses {@code String} keys, the {@code complex} key form uses {@code List<String>} keys
+ * with {@code enableComplexMapKeySerialization()} (the array wire format).
+ * 
+ * @author Zhenya Leonov
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class MultimapBenchmark {
+
+    private static final int VALUES_PER_KEY = 8;
+
+    @Param({ "1KB", "1MB", "100MB" })
+    public String size;
+
+    @Param({ "plain", "complex" })
+    public String keys;
+
+    private Gson             gson;
+    private Type             type;
+    private Multimap<?, ?>   multimap;
+    private String           json;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        gson = Payloads.gson(keys);
+        type = "plain".equals(keys) ? new TypeToken<Multimap<String, Integer>>() {
+        }.getType() : new TypeToken<Multimap<List<String>, Integer>>() {
+        }.getType();
+
+        final int units = Payloads.units(size, n -> gson.toJson(create(n), type).length());
+
+        multimap = create(units);
+        json     = gson.toJson(multimap, type);
+    }
+
+    private Multimap<Object, Integer> create(final int values) {
+        final Multimap<Object, Integer> multimap = ArrayListMultimap.create();
+        for (int i = 0; i < values; i++) {
+            final String key = "key-" + i / VALUES_PER_KEY;
+            multimap.put("plain".equals(keys) ? key : Arrays.asList("group", key), i);
+        }
+        return multimap;
+    }
+
+    @Benchmark
+    public Appendable write() throws IOException {
+        final Appendable out = CharStreams.nullWriter();
+        gson.toJson(multimap, type, out);
+        return out;
+    }
+
+    @Benchmark
+    public Object read() {
+        return gson.fromJson(json, type);
+    }
+
+}
@@ -0,0 +1,97 @@
+package software.leonov.util.gson.benchmarks;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.LinkedListMultimap;
+import com.google.common.collect.Multimap;
+import com.google.common.io.CharStreams;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import software.leonov.util.gson.MultimapTypeAdapter;
+
+/**
+ * Compares the direct streaming {@link MultimapTypeAdapter#write write} path against the previous implementation,
+ * which serialized {@code asMap()} through Gson's {@code Map} adapter with unresolved type variables (and therefore
+ * runtime-type adapter lookups for every key and value).
+ * 
+ * @author Zhenya Leonov
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class MultimapWriteBenchmark {
+
+    private static final int VALUES_PER_KEY = 8;
+
+    @Param({ "1KB", "1MB", "100MB" })
+    public String size;
+
+    @Param({ "ArrayListMultimap", "LinkedListMultimap" })
+    public String implementation;
+
+    @Param({ "plain", "complex" })
+    public String keys;
+
+    private final Type type = new TypeToken<Multimap<String, Integer>>() {
+    }.getType();
+
+    private final Type unresolvedMapType = unresolvedMapType();
+
+    private Gson                      gson;
+    private Multimap<String, Integer> multimap;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        gson     = Payloads.gson(keys);
+        multimap = create(Payloads.units(size, n -> gson.toJson(create(n), type).length()));
+    }
+
+    private Multimap<String, Integer> create(final int values) {
+        final Multimap<String, Integer> multimap = "ArrayListMultimap".equals(implementation) ? ArrayListMultimap.create() : LinkedListMultimap.create();
+        for (int i = 0; i < values; i++)
+            multimap.put("key-" + i / VALUES_PER_KEY, i);
+        return multimap;
+    }
+
+    private static <K, V> Type unresolvedMapType() {
+        return new TypeToken<Map<K, Collection<V>>>() {
+        }.getType();
+    }
+
+    @Benchmark
+    public Appendable direct() throws IOException {
+        final Appendable out = CharStreams.nullWriter();
+        gson.toJson(multimap, type, out);
+        return out;
+    }
+
+    @Benchmark
+    public Appendable viaMapAdapter() throws IOException {
+        final Appendable out = CharStreams.nullWriter();
+        gson.toJson(multimap.asMap(), unresolvedMapType, out);
+        return out;
+    }
+
+}
@@ -0,0 +1,96 @@
+package software.leonov.util.gson.benchmarks;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.LinkedHashMultiset;
+import com.google.common.collect.Multiset;
+import com.google.common.io.CharStreams;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import software.leonov.util.gson.MultisetTypeAdapter;
+import software.leonov.util.gson.MultisetTypeAdapterFactory;
+
+/**
+ * Measures {@link MultisetTypeAdapter} serialization and deserialization.
+ * <p>
+ * The {@code plain} key form uses {@code String} elements, the {@code complex} key form uses {@code List<String>}
+ * elements with {@code enableComplexMapKeySerialization()}. The {@code object} encoding registers
+ * {@link MultisetTypeAdapterFactory#withObjectEncoding()}, which only changes the wire format of {@code plain} keys.
+ * 
+ * @author Zhenya Leonov
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class MultisetBenchmark {
+
+    @Param({ "1KB", "1MB", "100MB" })
+    public String size;
+
+    @Param({ "plain", "complex" })
+    public String keys;
+
+    @Param({ "array", "object" })
+    public String encoding;
+
+    private Gson        gson;
+    private Type        type;
+    private Multiset<?> multiset;
+    private String      json;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        gson = "object".equals(encoding) ? Payloads.gson(keys).newBuilder().registerTypeAdapterFactory(new MultisetTypeAdapterFactory().withObjectEncoding()).create() : Payloads.gson(keys);
+        type = "plain".equals(keys) ? new TypeToken<Multiset<String>>() {
+        }.getType() : new TypeToken<Multiset<List<String>>>() {
+        }.getType();
+
+        final int units = Payloads.units(size, n -> gson.toJson(create(n), type).length());
+
+        multiset = create(units);
+        json     = gson.toJson(multiset, type);
+    }
+
+    private Multiset<Object> create(final int elements) {
+        final Multiset<Object> multiset = LinkedHashMultiset.create();
+        for (int i = 0; i < elements; i++) {
+            final String element = "element-" + i;
+            multiset.add("plain".equals(keys) ? element : Arrays.asList("term", element), i % 16 + 1);
+        }
+        return multiset;
+    }
+
+    @Benchmark
+    public Appendable write() throws IOException {
+        final Appendable out = CharStreams.nullWriter();
+        gson.toJson(multiset, type, out);
+        return out;
+    }
+
+    @Benchmark
+    public Object read() {
+        return gson.fromJson(json, type);
+    }
+
+}
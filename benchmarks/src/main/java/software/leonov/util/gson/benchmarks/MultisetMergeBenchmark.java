@@ -0,0 +1,90 @@
+package software.leonov.util.gson.benchmarks;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.LinkedHashMultiset;
+import com.google.common.collect.Multiset;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import software.leonov.util.gson.GsonHelper;
+
+/**
+ * Compares merging many {@code Multiset<String>} shards by deserializing each one and adding it to a single
+ * {@code Multiset} ({@code sequential}) against {@link GsonHelper#mergeMultisets(Type, Iterable)}.
+ *
+ * @author Zhenya Leonov
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class MultisetMergeBenchmark {
+
+    @Param({ "16", "256" })
+    public int shards;
+
+    @Param({ "64KB", "1MB" })
+    public String size;
+
+    private Gson         gson;
+    private Type         type;
+    private List<String> json;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        gson = Payloads.gson("plain");
+        type = new TypeToken<Multiset<String>>() {
+        }.getType();
+
+        final int units = Payloads.units(size, n -> gson.toJson(create(0, n), type).length());
+
+        json = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++)
+            json.add(gson.toJson(create(i, units), type));
+    }
+
+    private static Multiset<String> create(final int shard, final int elements) {
+        final Multiset<String> multiset = LinkedHashMultiset.create();
+        for (int i = 0; i < elements; i++)
+            multiset.add("term-" + (i + shard * 31) % (elements * 2), i % 16 + 1); // shards partially overlap
+        return multiset;
+    }
+
+    @Benchmark
+    public Object sequential() {
+        final Multiset<String> target = LinkedHashMultiset.create();
+        for (final String shard : json)
+            target.addAll(gson.<Multiset<String>>fromJson(shard, type));
+        return target;
+    }
+
+    @Benchmark
+    public Object parallel() {
+        final List<Reader> readers = new ArrayList<>(shards);
+        for (final String shard : json)
+            readers.add(new StringReader(shard));
+        return GsonHelper.mergeMultisets(String.class, readers);
+    }
+
+}
@@ -0,0 +1,92 @@
+package software.leonov.util.gson.benchmarks;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.io.CharStreams;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import software.leonov.util.gson.OptionalTypeAdapter;
+
+/**
+ * Measures {@link OptionalTypeAdapter} serialization and deserialization of a list of {@code Optional}s, every fourth
+ * of which is empty.
+ * <p>
+ * The {@code plain} key form uses {@code Optional<String>} elements, the {@code complex} key form uses
+ * {@code Optional<List<String>>} elements with {@code enableComplexMapKeySerialization()}.
+ * 
+ * @author Zhenya Leonov
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class OptionalBenchmark {
+
+    @Param({ "1KB", "1MB", "100MB" })
+    public String size;
+
+    @Param({ "plain", "complex" })
+    public String keys;
+
+    private Gson    gson;
+    private Type    type;
+    private List<?> list;
+    private String  json;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        gson = Payloads.gson(keys);
+        type = "plain".equals(keys) ? new TypeToken<List<Optional<String>>>() {
+        }.getType() : new TypeToken<List<Optional<List<String>>>>() {
+        }.getType();
+
+        final int units = Payloads.units(size, n -> gson.toJson(create(n), type).length());
+
+        list = create(units);
+        json = gson.toJson(list, type);
+    }
+
+    private List<Optional<Object>> create(final int elements) {
+        final List<Optional<Object>> list = new ArrayList<>(elements);
+        for (int i = 0; i < elements; i++) {
+            final String value = "value-" + i;
+            list.add(i % 4 == 0 ? Optional.empty() : Optional.of("plain".equals(keys) ? value : Arrays.asList("item", value)));
+        }
+        return list;
+    }
+
+    @Benchmark
+    public Appendable write() throws IOException {
+        final Appendable out = CharStreams.nullWriter();
+        gson.toJson(list, type, out);
+        return out;
+    }
+
+    @Benchmark
+    public Object read() {
+        return gson.fromJson(json, type);
+    }
+
+}
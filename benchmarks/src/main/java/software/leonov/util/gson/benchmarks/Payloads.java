@@ -0,0 +1,92 @@
+package software.leonov.util.gson.benchmarks;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.function.IntToLongFunction;
+
+import com.fatboyindustrial.gsonjavatime.Converters;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import software.leonov.util.gson.GsonHelper;
+
+/**
+ * Shared helpers for building benchmark payloads of a given serialized size.
+ * 
+ * @author Zhenya Leonov
+ */
+final class Payloads {
+
+    /**
+     * The payload sizes every benchmark is parameterized with. Can be overridden on the command line with
+     * {@code -p size=...}.
+     */
+    static final String[] SIZES = { "1KB", "1MB", "100MB" };
+
+    private static final int SAMPLE_UNITS = 256;
+
+    private Payloads() {
+    }
+
+    /**
+     * Returns a new compact {@code Gson} instance with all {@code gson-helper} adapters registered.
+     * 
+     * @param keys either {@code "plain"} or {@code "complex"} ({@link GsonBuilder#enableComplexMapKeySerialization()})
+     * @return a new compact {@code Gson} instance with all {@code gson-helper} adapters registered
+     */
+    static Gson gson(final String keys) {
+        checkNotNull(keys, "keys == null");
+
+        final GsonBuilder builder = GsonHelper.registerAll(Converters.registerAll(new GsonBuilder())).serializeNulls().disableHtmlEscaping();
+
+        if ("complex".equals(keys))
+            builder.enableComplexMapKeySerialization();
+        else
+            checkArgument("plain".equals(keys), "unknown key form: %s", keys);
+
+        return builder.create();
+    }
+
+    /**
+     * Parses a human readable size such as {@code 1KB}, {@code 64KB}, {@code 1MB} or {@code 100MB} into bytes.
+     * 
+     * @param size the human readable size
+     * @return the number of bytes
+     */
+    static long bytes(final String size) {
+        checkNotNull(size, "size == null");
+
+        final String s = size.trim().toUpperCase();
+
+        if (s.endsWith("GB"))
+            return Long.parseLong(s.substring(0, s.length() - 2).trim()) << 30;
+        else if (s.endsWith("MB"))
+            return Long.parseLong(s.substring(0, s.length() - 2).trim()) << 20;
+        else if (s.endsWith("KB"))
+            return Long.parseLong(s.substring(0, s.length() - 2).trim()) << 10;
+        else if (s.endsWith("B"))
+            return Long.parseLong(s.substring(0, s.length() - 1).trim());
+        else
+            return Long.parseLong(s);
+    }
+
+    /**
+     * Returns the number of units (entries, cells, elements, records) a payload must contain to serialize to
+     * approximately the specified size.
+     * 
+     * @param size    the human readable target size
+     * @param sampler returns the serialized length of a payload of the given number of units
+     * @return the number of units a payload must contain to serialize to approximately the specified size
+     */
+    static int units(final String size, final IntToLongFunction sampler) {
+        checkNotNull(sampler, "sampler == null");
+
+        final double bytesPerUnit = (double) sampler.applyAsLong(SAMPLE_UNITS) / SAMPLE_UNITS;
+        final long   units        = (long) (bytes(size) / bytesPerUnit);
+
+        checkArgument(units <= Integer.MAX_VALUE, "%s is too large", size);
+        return Math.max(1, (int) units);
+    }
+
+}
@@ -0,0 +1,98 @@
+package software.leonov.util.gson.benchmarks;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Table;
+import com.google.common.io.CharStreams;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import software.leonov.util.gson.TableTypeAdapter;
+import software.leonov.util.gson.TableTypeAdapterFactory;
+
+/**
+ * Measures {@link TableTypeAdapter} serialization and deserialization.
+ * <p>
+ * The {@code plain} key form uses {@code String} row keys, the {@code complex} key form uses {@code List<String>} row
+ * keys with {@code enableComplexMapKeySerialization()} (the array wire format). The {@code columnar} encoding registers
+ * {@link TableTypeAdapterFactory#withColumnarEncoding()}.
+ * 
+ * @author Zhenya Leonov
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class TableBenchmark {
+
+    private static final int COLUMNS = 32;
+
+    @Param({ "1KB", "1MB", "100MB" })
+    public String size;
+
+    @Param({ "plain", "complex" })
+    public String keys;
+
+    @Param({ "nested", "columnar" })
+    public String encoding;
+
+    private Gson              gson;
+    private Type              type;
+    private Table<?, ?, ?>    table;
+    private String            json;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        gson = "columnar".equals(encoding) ? Payloads.gson(keys).newBuilder().registerTypeAdapterFactory(new TableTypeAdapterFactory().withColumnarEncoding()).create() : Payloads.gson(keys);
+        type = "plain".equals(keys) ? new TypeToken<Table<String, String, Double>>() {
+        }.getType() : new TypeToken<Table<List<String>, String, Double>>() {
+        }.getType();
+
+        final int units = Payloads.units(size, n -> gson.toJson(create(n), type).length());
+
+        table = create(units);
+        json  = gson.toJson(table, type);
+    }
+
+    private Table<Object, String, Double> create(final int cells) {
+        final Table<Object, String, Double> table = HashBasedTable.create();
+        for (int i = 0; i < cells; i++) {
+            final String row = "row-" + i / COLUMNS;
+            table.put("plain".equals(keys) ? row : Arrays.asList("series", row), "column-" + i % COLUMNS, i * 0.25);
+        }
+        return table;
+    }
+
+    @Benchmark
+    public Appendable write() throws IOException {
+        final Appendable out = CharStreams.nullWriter();
+        gson.toJson(table, type, out);
+        return out;
+    }
+
+    @Benchmark
+    public Object read() {
+        return gson.fromJson(json, type);
+    }
+
+}
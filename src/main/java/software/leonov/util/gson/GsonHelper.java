@@ -3,32 +3,72 @@ package software.leonov.util.gson;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.io.BufferedReader;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.io.Writer;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import com.fatboyindustrial.gsonjavatime.Converters;
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ConcurrentHashMultiset;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multiset;
 import com.google.common.collect.Table;
+import com.google.common.reflect.ClassPath;
+import com.google.common.reflect.ClassPath.ClassInfo;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
 import com.google.gson.JsonNull;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
-import com.google.gson.internal.bind.JsonTreeReader;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
 
 /**
  * A collection of static utility methods that simplify common serialization and deserialization operations using
@@ -53,25 +93,87 @@ import com.google.gson.stream.JsonWriter;
  *           .enableComplexMapKeySerialization()
  *           .create();
  * </code></pre>
+ * <p>
+ * Latency-sensitive applications which do not need <i>pretty</i> printed output can use the
+ * {@link Profile#COMPACT compact} {@code Gson} instance returned by {@link #getGson(Profile)}, or a
+ * {@link #newJsonWriter(Writer, Profile) JSON writer} configured with its settings, instead. None of the {@code Gson}
+ * instances are created before they are first needed.
  * 
  * @author Zhenya Leonov
  */
 public final class GsonHelper {
 
-    // @formatter:off
-    private static final Gson GSON = registerAll(Converters.registerAll(new GsonBuilder())
-            .serializeNulls()
-            .setPrettyPrinting()
-            .disableHtmlEscaping())
-            .enableComplexMapKeySerialization()
-            .create();
-    // @formatter:on;
-
     private static final JsonParser JSON_PARSER = new JsonParser();
 
     private GsonHelper() {
     }
 
+    /**
+     * The {@code Gson} configurations offered by {@link GsonHelper#getGson(Profile)}.
+     * <p>
+     * All profiles support the same types as the {@link GsonHelper#getGson() default Gson instance},
+     * {@link GsonBuilder#serializeNulls() serialize nulls}, and {@link GsonBuilder#disableHtmlEscaping() do not escape
+     * HTML characters}. Each {@code Gson} instance is created the first time it is requested.
+     */
+    public enum Profile {
+
+        /**
+         * Outputs {@link GsonBuilder#setPrettyPrinting() <i>pretty</i> printed} JSON text. This is the profile of the
+         * {@link GsonHelper#getGson() default Gson instance}.
+         */
+        PRETTY {
+            @Override
+            Gson gson() {
+                return PrettyHolder.GSON;
+            }
+        },
+
+        /**
+         * Outputs JSON text without any insignificant whitespace.
+         */
+        COMPACT {
+            @Override
+            Gson gson() {
+                return CompactHolder.GSON;
+            }
+        },
+
+        /**
+         * Outputs JSON text without any insignificant whitespace, and {@link GsonBuilder#setLenient() leniently} accepts
+         * malformed JSON text when reading.
+         */
+        LENIENT {
+            @Override
+            Gson gson() {
+                return LenientHolder.GSON;
+            }
+        };
+
+        abstract Gson gson();
+
+    }
+
+    // @formatter:off
+    private static GsonBuilder newGsonBuilder() {
+        return registerAll(Converters.registerAll(new GsonBuilder())
+                .serializeNulls()
+                .disableHtmlEscaping())
+                .enableComplexMapKeySerialization();
+    }
+    // @formatter:on
+
+    private static final class PrettyHolder {
+        private static final Gson GSON = newGsonBuilder().setPrettyPrinting().create();
+    }
+
+    private static final class CompactHolder {
+        private static final Gson GSON = newGsonBuilder().create();
+    }
+
+    private static final class LenientHolder {
+        private static final Gson GSON = newGsonBuilder().setLenient().create();
+    }
+
     /**
      * Returns a new JSON reader configured with the settings of the {@link #getGson() default Gson instance}.
      * 
@@ -80,7 +182,38 @@ public final class GsonHelper {
      * @throws IOException if an I/O error occurs
      */
     public static JsonReader newJsonReader(final Reader reader) throws IOException {
-        return GSON.newJsonReader(reader);
+        return getGson().newJsonReader(reader);
+    }
+
+    /**
+     * Returns a new JSON reader configured with the settings of the {@link #getGson(Profile) Gson instance} of the
+     * specified profile.
+     * 
+     * @param reader  the specified reader
+     * @param profile the specified profile
+     * @return a new JSON reader configured with the settings of the {@link #getGson(Profile) Gson instance} of the
+     *         specified profile
+     * @throws IOException if an I/O error occurs
+     */
+    public static JsonReader newJsonReader(final Reader reader, final Profile profile) throws IOException {
+        return getGson(profile).newJsonReader(reader);
+    }
+
+    /**
+     * Returns a new JSON reader, configured with the settings of the {@link #getGson() default Gson instance}, which reads
+     * the specified {@link StandardCharsets#UTF_8 UTF-8} encoded file through memory mappings.
+     * <p>
+     * The file is mapped in windows of up to 1 GB as it is read, so files larger than 2 GB are supported, and its
+     * contents are decoded straight from the mapped memory without being copied onto the heap. Closing the JSON reader
+     * closes the file.
+     * 
+     * @param path the file to read from
+     * @return a new JSON reader which reads the specified file through memory mappings
+     * @throws IOException if an I/O error occurs
+     */
+    public static JsonReader newJsonReader(final Path path) throws IOException {
+        checkNotNull(path, "path == null");
+        return getGson().newJsonReader(Utf8Reader.map(path, Utf8Reader.WINDOW_SIZE));
     }
 
     /**
@@ -91,12 +224,31 @@ public final class GsonHelper {
      * @throws IOException if an I/O error occurs
      */
     public static JsonWriter newJsonWriter(final Writer writer) throws IOException {
-        return GSON.newJsonWriter(writer);
+        return getGson().newJsonWriter(writer);
     }
 
     /**
-     * Registers {@link OptionalTypeAdapterFactory}, {@link MultisetTypeAdapterFactory}, {@link MultimapTypeAdapterFactory},
-     * and {@link TableTypeAdapterFactory} with the specified {@link GsonBuilder}.
+     * Returns a new JSON writer configured with the settings of the {@link #getGson(Profile) Gson instance} of the
+     * specified profile.
+     * <p>
+     * For example, {@code newJsonWriter(writer, Profile.COMPACT)} returns a writer which does not output any insignificant
+     * whitespace.
+     * 
+     * @param writer  the underlying writer
+     * @param profile the specified profile
+     * @return a new JSON writer configured with the settings of the {@link #getGson(Profile) Gson instance} of the
+     *         specified profile
+     * @throws IOException if an I/O error occurs
+     */
+    public static JsonWriter newJsonWriter(final Writer writer, final Profile profile) throws IOException {
+        return getGson(profile).newJsonWriter(writer);
+    }
+
+    /**
+     * Registers a {@link GuavaTypeAdapterFactory}, which combines {@link OptionalTypeAdapterFactory},
+     * {@link OptionalIntTypeAdapter}, {@link OptionalLongTypeAdapter}, {@link OptionalDoubleTypeAdapter},
+     * {@link MultisetTypeAdapterFactory}, {@link MultimapTypeAdapterFactory}, and {@link TableTypeAdapterFactory}, with
+     * the specified {@link GsonBuilder}.
      * 
      * @param builder the specified GSON builder
      * @return the specified GSON builder
@@ -104,14 +256,7 @@ public final class GsonHelper {
     public static GsonBuilder registerAll(final GsonBuilder builder) {
         checkNotNull(builder, "builder == null");
 
-        // @formatter:off
-        builder.registerTypeAdapterFactory(new OptionalTypeAdapterFactory())
-               .registerTypeAdapterFactory(new MultisetTypeAdapterFactory())
-               .registerTypeAdapterFactory(new MultimapTypeAdapterFactory())
-               .registerTypeAdapterFactory(new TableTypeAdapterFactory());
-        // @formatter:on
-
-        return builder;
+        return builder.registerTypeAdapterFactory(new GuavaTypeAdapterFactory());
     }
 
     /**
@@ -128,7 +273,21 @@ public final class GsonHelper {
      *         escape HTML characters}, and outputs {@link GsonBuilder#setPrettyPrinting() <i>pretty</i> printed} JSON text
      */
     public static Gson getGson() {
-        return GSON;
+        return PrettyHolder.GSON;
+    }
+
+    /**
+     * Returns the {@link Gson} instance of the specified {@link Profile}, creating it if this is the first time it is
+     * requested.
+     * <p>
+     * {@code getGson(Profile.PRETTY)} returns the {@link #getGson() default Gson instance}.
+     * 
+     * @param profile the specified profile
+     * @return the {@link Gson} instance of the specified {@link Profile}
+     */
+    public static Gson getGson(final Profile profile) {
+        checkNotNull(profile, "profile == null");
+        return profile.gson();
     }
 
     /**
@@ -366,6 +525,23 @@ public final class GsonHelper {
         return JSON_PARSER.parse(text);
     }
 
+    /**
+     * Returns a {@link LazyJsonElement} over the specified JSON text, which parses nested objects and arrays only when
+     * they are first accessed.
+     * <p>
+     * Unlike {@link #parseJson(String)}, no tree is built up front: the text is retained and each object or array is
+     * scanned for the offsets of its children the first time one of them is accessed. Subtrees which are never accessed
+     * are never parsed. The text must be valid JSON according to <a href="https://tools.ietf.org/html/rfc7159">RFC
+     * 7159</a>; malformed text is detected only in the parts of the document which are accessed.
+     * 
+     * @param text the JSON text to parse
+     * @return a {@code LazyJsonElement} over the specified JSON text
+     * @throws JsonSyntaxException if the text does not consist of a single JSON value
+     */
+    public static LazyJsonElement parseJsonLazily(final String text) {
+        return LazyJsonElement.parse(text);
+    }
+
     /**
      * Parses JSON content from the specified reader.
      * 
@@ -391,6 +567,22 @@ public final class GsonHelper {
         return nextElement(in);
     }
 
+    /**
+     * Parses JSON content from the specified {@link StandardCharsets#UTF_8 UTF-8} encoded file.
+     * <p>
+     * The file is read through memory mappings, see {@link #newJsonReader(Path)}.
+     * 
+     * @param path the file to read from
+     * @return a tree of {@link JsonElement}s parsed from the specified file
+     * @throws IOException if an I/O error occurs
+     */
+    public static JsonElement parseJson(final Path path) throws IOException {
+        checkNotNull(path, "path == null");
+        try (final Reader reader = Utf8Reader.map(path, Utf8Reader.WINDOW_SIZE)) {
+            return JSON_PARSER.parse(reader);
+        }
+    }
+
     /**
      * Parses JSON content from an {@code InputStream} using the {@link StandardCharsets#UTF_8 UTF-8} charset.
      * <p>
@@ -421,6 +613,90 @@ public final class GsonHelper {
         }
     }
 
+    /**
+     * Parses {@link StandardCharsets#UTF_8 UTF-8} encoded JSON content from the specified byte array.
+     * <p>
+     * The bytes are decoded directly into the buffer of the underlying {@code JsonReader}, without an intermediate
+     * {@code InputStreamReader} or {@code BufferedReader}.
+     * 
+     * @param bytes the specified byte array
+     * @return a tree of {@link JsonElement}s parsed from the specified byte array
+     */
+    public static JsonElement parseJson(final byte[] bytes) {
+        checkNotNull(bytes, "bytes == null");
+        return parseJson(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Parses {@link StandardCharsets#UTF_8 UTF-8} encoded JSON content from the remaining bytes in the specified
+     * {@code ByteBuffer}. The position of the buffer is not modified.
+     * <p>
+     * The bytes are decoded directly into the buffer of the underlying {@code JsonReader}, without an intermediate
+     * {@code InputStreamReader} or {@code BufferedReader}.
+     * 
+     * @param buffer the specified {@code ByteBuffer}
+     * @return a tree of {@link JsonElement}s parsed from the specified {@code ByteBuffer}
+     */
+    public static JsonElement parseJson(final ByteBuffer buffer) {
+        checkNotNull(buffer, "buffer == null");
+        return JSON_PARSER.parse(new Utf8Reader(buffer));
+    }
+
+    /**
+     * Deserializes {@link StandardCharsets#UTF_8 UTF-8} encoded JSON content from the specified byte array into an
+     * object of the specified type using the {@link #getGson() default Gson instance}.
+     * 
+     * @param <T>   the type of the desired object
+     * @param bytes the specified byte array
+     * @param type  the {@link Type} of the desired object
+     * @return an object of the specified type, or {@code null} if the byte array is empty
+     * @throws JsonSyntaxException if the byte array does not contain a valid representation of an object of the specified
+     *                             type
+     */
+    public static <T> T fromJson(final byte[] bytes, final Type type) {
+        checkNotNull(bytes, "bytes == null");
+        return fromJson(getGson(), ByteBuffer.wrap(bytes), type);
+    }
+
+    /**
+     * Deserializes {@link StandardCharsets#UTF_8 UTF-8} encoded JSON content from the remaining bytes in the specified
+     * {@code ByteBuffer} into an object of the specified type using the {@link #getGson() default Gson instance}. The
+     * position of the buffer is not modified.
+     * 
+     * @param <T>    the type of the desired object
+     * @param buffer the specified {@code ByteBuffer}
+     * @param type   the {@link Type} of the desired object
+     * @return an object of the specified type, or {@code null} if the buffer has no remaining bytes
+     * @throws JsonSyntaxException if the buffer does not contain a valid representation of an object of the specified
+     *                             type
+     */
+    public static <T> T fromJson(final ByteBuffer buffer, final Type type) {
+        return fromJson(getGson(), buffer, type);
+    }
+
+    /**
+     * Deserializes {@link StandardCharsets#UTF_8 UTF-8} encoded JSON content from the remaining bytes in the specified
+     * {@code ByteBuffer} into an object of the specified type using the given {@code Gson} instance. The position of the
+     * buffer is not modified.
+     * <p>
+     * The bytes are decoded directly into the buffer of the underlying {@code JsonReader}, without an intermediate
+     * {@code InputStreamReader} or {@code BufferedReader}.
+     * 
+     * @param <T>    the type of the desired object
+     * @param gson   the {@code Gson} instance used to deserialize the object
+     * @param buffer the specified {@code ByteBuffer}
+     * @param type   the {@link Type} of the desired object
+     * @return an object of the specified type, or {@code null} if the buffer has no remaining bytes
+     * @throws JsonSyntaxException if the buffer does not contain a valid representation of an object of the specified
+     *                             type
+     */
+    public static <T> T fromJson(final Gson gson, final ByteBuffer buffer, final Type type) {
+        checkNotNull(gson, "gson == null");
+        checkNotNull(buffer, "buffer == null");
+        checkNotNull(type, "type == null");
+        return gson.fromJson(new Utf8Reader(buffer), type);
+    }
+
     /**
      * Copies all {@code JsonToken}s from the specified {@code JsonReader} to the given {@code JsonWriter}.
      * <p>
@@ -433,39 +709,783 @@ public final class GsonHelper {
      * @throws IOException if an I/O error occurs
      */
     public static <W extends JsonWriter> W copy(final JsonReader from, final W to) throws IOException {
+        return copy(from, to, false);
+    }
+
+    /**
+     * Copies all {@code JsonToken}s from the specified {@code JsonReader} to the given {@code JsonWriter}, optionally
+     * passing numbers through as they appear in the input.
+     * <p>
+     * If {@code numberLexemes} is {@code false} each number is converted to a {@link BigDecimal} before it is written,
+     * which normalizes its representation (for example {@code 1e2} is written as {@code 1E+2}). If {@code numberLexemes}
+     * is {@code true} the lexeme returned by {@link JsonReader#nextString()} is written verbatim via
+     * {@link JsonWriter#jsonValue(String)}, avoiding the {@code BigDecimal} conversion and its allocations. The lexeme of a
+     * {@link JsonToken#NUMBER NUMBER} token is always a valid JSON number, except for the non-finite values {@code NaN},
+     * {@code Infinity}, and {@code -Infinity} a {@code JsonTreeReader} may return, which are rejected unless the writer is
+     * {@link JsonWriter#setLenient(boolean) lenient}.
+     * <p>
+     * Does not close the reader or the writer.
+     * 
+     * @param <W>           the type of {@code JsonWriter}
+     * @param from          the specified {@code JsonReader}
+     * @param to            the given {@code JsonWriter}
+     * @param numberLexemes whether to write numbers exactly as they appear in the input
+     * @return the given {@code JsonWriter}
+     * @throws IOException if an I/O error occurs
+     */
+    public static <W extends JsonWriter> W copy(final JsonReader from, final W to, final boolean numberLexemes) throws IOException {
         checkNotNull(from, "from == null");
         checkNotNull(to, "to == null");
 
-        for (JsonToken peek = from.peek(); peek != JsonToken.END_DOCUMENT; peek = from.peek()) {
-            if (peek == JsonToken.BEGIN_ARRAY) {
-                from.beginArray();
-                to.beginArray();
-            } else if (peek == JsonToken.BEGIN_OBJECT) {
-                from.beginObject();
-                to.beginObject();
-            } else if (peek == JsonToken.BOOLEAN)
-                to.value(from.nextBoolean());
-            else if (peek == JsonToken.END_ARRAY) {
-                from.endArray();
-                to.endArray();
-            } else if (peek == JsonToken.END_OBJECT) {
-                from.endObject();
-                to.endObject();
-            } else if (peek == JsonToken.NAME)
-                to.name(from.nextName());
-            else if (peek == JsonToken.NULL) {
-                from.nextNull();
-                to.nullValue();
-            } else if (peek == JsonToken.NUMBER)
-                to.value(new BigDecimal(from.nextString()));
-            else if (peek == JsonToken.STRING)
-                to.value(from.nextString());
-        }
+        for (JsonToken peek = from.peek(); peek != JsonToken.END_DOCUMENT; peek = from.peek())
+            copy(peek, from, to, numberLexemes);
 
         to.flush();
         return to;
     }
 
+    /*
+     * Copies the next token, returning 1 if it opens an array or object, -1 if it closes one, and 0 otherwise.
+     */
+    private static int copy(final JsonToken peek, final JsonReader from, final JsonWriter to, final boolean numberLexemes) throws IOException {
+        if (peek == JsonToken.BEGIN_ARRAY) {
+            from.beginArray();
+            to.beginArray();
+            return 1;
+        } else if (peek == JsonToken.BEGIN_OBJECT) {
+            from.beginObject();
+            to.beginObject();
+            return 1;
+        } else if (peek == JsonToken.BOOLEAN)
+            to.value(from.nextBoolean());
+        else if (peek == JsonToken.END_ARRAY) {
+            from.endArray();
+            to.endArray();
+            return -1;
+        } else if (peek == JsonToken.END_OBJECT) {
+            from.endObject();
+            to.endObject();
+            return -1;
+        } else if (peek == JsonToken.NAME)
+            to.name(from.nextName());
+        else if (peek == JsonToken.NULL) {
+            from.nextNull();
+            to.nullValue();
+        } else if (peek == JsonToken.NUMBER)
+            if (numberLexemes)
+                to.jsonValue(checkFinite(from.nextString(), to));
+            else
+                to.value(new BigDecimal(from.nextString()));
+        else if (peek == JsonToken.STRING)
+            to.value(from.nextString());
+        return 0;
+    }
+
+    /*
+     * Rejects the non-finite number lexemes which JsonWriter.value(Number) rejects, unless the writer is lenient.
+     */
+    private static String checkFinite(final String lexeme, final JsonWriter out) {
+        if (!out.isLenient()) {
+            final char c = lexeme.charAt(lexeme.charAt(0) == '-' ? Math.min(1, lexeme.length() - 1) : 0);
+            if (c == 'N' || c == 'I')
+                throw new IllegalArgumentException("Numeric values must be finite, but was " + lexeme);
+        }
+        return lexeme;
+    }
+
+    /**
+     * Consumes the next {@code Multimap} value from the specified {@code JsonReader} and passes each of its entries to the
+     * given consumer as soon as it is read, without materializing the {@code Multimap}. Keys and values are read using
+     * the {@link #getGson() default Gson instance}.
+     * <p>
+     * Equivalent to {@link #readMultimapEntries(Gson, JsonReader, Type, Type, BiConsumer) readMultimapEntries(getGson(),
+     * in, keyType, valueType, consumer)}.
+     * 
+     * @param <K>       the type of keys
+     * @param <V>       the type of mapped values
+     * @param in        the {@code JsonReader} to read from
+     * @param keyType   the {@link Type} of keys
+     * @param valueType the {@link Type} of mapped values
+     * @param consumer  the consumer of entries
+     * @throws IOException if an I/O error occurs
+     */
+    public static <K, V> void readMultimapEntries(final JsonReader in, final Type keyType, final Type valueType, final BiConsumer<? super K, ? super V> consumer) throws IOException {
+        readMultimapEntries(getGson(), in, keyType, valueType, consumer);
+    }
+
+    /**
+     * Consumes the next {@code Multimap} value from the specified {@code JsonReader} and passes each of its entries to the
+     * given consumer as soon as it is read, without materializing the {@code Multimap}. Keys and values are read using
+     * the specified {@code Gson} instance.
+     * <p>
+     * Both wire formats written by {@link MultimapTypeAdapter} are supported: a JSON object mapping keys to arrays of
+     * values, and the array of {@code [key, [values...]]} pairs used for
+     * {@link GsonBuilder#enableComplexMapKeySerialization() complex} keys. A JSON {@code null} is consumed without
+     * invoking the consumer.
+     * 
+     * @param <K>       the type of keys
+     * @param <V>       the type of mapped values
+     * @param gson      the {@code Gson} instance used to read keys and values
+     * @param in        the {@code JsonReader} to read from
+     * @param keyType   the {@link Type} of keys
+     * @param valueType the {@link Type} of mapped values
+     * @param consumer  the consumer of entries
+     * @throws IOException if an I/O error occurs
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> void readMultimapEntries(final Gson gson, final JsonReader in, final Type keyType, final Type valueType, final BiConsumer<? super K, ? super V> consumer) throws IOException {
+        checkNotNull(gson, "gson == null");
+        checkNotNull(in, "in == null");
+        checkNotNull(keyType, "keyType == null");
+        checkNotNull(valueType, "valueType == null");
+        checkNotNull(consumer, "consumer == null");
+
+        final TypeAdapter<?> adapter = gson.getAdapter(TypeToken.getParameterized(Multimap.class, keyType, valueType)); // cached by Gson
+
+        final MultimapTypeAdapter<K, V> multimapAdapter = adapter instanceof MultimapTypeAdapter ? (MultimapTypeAdapter<K, V>) adapter : new MultimapTypeAdapter<>(gson, keyType, valueType);
+
+        multimapAdapter.readEntries(in, consumer);
+    }
+
+    /**
+     * Consumes the next value from the specified {@code JsonReader} and returns the values matched by the specified JSON
+     * Pointer or JSONPath expressions as {@code JsonElement}s, skipping every subtree which no expression can match.
+     * <p>
+     * Equivalent to {@link JsonSelector#compile(String...) JsonSelector.compile(paths)}{@link JsonSelector#select(JsonReader)
+     * .select(in)}. Compile a {@link JsonSelector} once to reuse the same expressions across documents.
+     * 
+     * @param in    the {@code JsonReader} to read from
+     * @param paths the JSON Pointer or JSONPath expressions
+     * @return a {@code ListMultimap} which maps each expression to the values it matched, in document order
+     * @throws IOException              if an I/O error occurs
+     * @throws IllegalArgumentException if an expression is malformed or uses unsupported syntax
+     */
+    public static ListMultimap<String, JsonElement> extract(final JsonReader in, final String... paths) throws IOException {
+        return JsonSelector.compile(paths).select(in);
+    }
+
+    /**
+     * Consumes the next value from the specified {@code JsonReader} and returns the values matched by the specified JSON
+     * Pointer or JSONPath expressions, deserialized using the {@link #getGson() default Gson instance}, skipping every
+     * subtree which no expression can match.
+     * <p>
+     * Equivalent to {@link #extract(Gson, JsonReader, Type, String...) extract(getGson(), in, type, paths)}.
+     * 
+     * @param <T>   the type of the selected values
+     * @param in    the {@code JsonReader} to read from
+     * @param type  the {@link Type} of the selected values
+     * @param paths the JSON Pointer or JSONPath expressions
+     * @return a {@code ListMultimap} which maps each expression to the values it matched, in document order
+     * @throws IOException              if an I/O error occurs
+     * @throws IllegalArgumentException if an expression is malformed or uses unsupported syntax
+     */
+    public static <T> ListMultimap<String, T> extract(final JsonReader in, final Type type, final String... paths) throws IOException {
+        return extract(getGson(), in, type, paths);
+    }
+
+    /**
+     * Consumes the next value from the specified {@code JsonReader} and returns the values matched by the specified JSON
+     * Pointer or JSONPath expressions, deserialized using the specified {@code Gson} instance, skipping every subtree
+     * which no expression can match.
+     * <p>
+     * See {@link JsonSelector} for the supported syntax and {@link JsonSelector#select(Gson, JsonReader, Type)} for
+     * details.
+     * 
+     * @param <T>   the type of the selected values
+     * @param gson  the {@code Gson} instance used to deserialize the selected values
+     * @param in    the {@code JsonReader} to read from
+     * @param type  the {@link Type} of the selected values
+     * @param paths the JSON Pointer or JSONPath expressions
+     * @return a {@code ListMultimap} which maps each expression to the values it matched, in document order
+     * @throws IOException              if an I/O error occurs
+     * @throws IllegalArgumentException if an expression is malformed or uses unsupported syntax
+     */
+    public static <T> ListMultimap<String, T> extract(final Gson gson, final JsonReader in, final Type type, final String... paths) throws IOException {
+        return JsonSelector.compile(paths).select(gson, in, type);
+    }
+
+    /**
+     * Returns a lazy {@code Iterator} over the elements of the JSON array at the current position of the specified
+     * {@code JsonReader}. Elements are deserialized using the {@link #getGson() default Gson instance}.
+     * <p>
+     * Equivalent to {@link #iterateArray(Gson, JsonReader, Type) iterateArray(getGson(), in, type)}.
+     * 
+     * @param <T>  the type of elements
+     * @param in   the {@code JsonReader} to read from
+     * @param type the {@link Type} of elements
+     * @return a lazy {@code Iterator} over the elements of the JSON array
+     */
+    public static <T> Iterator<T> iterateArray(final JsonReader in, final Type type) {
+        return iterateArray(getGson(), in, type);
+    }
+
+    /**
+     * Returns a lazy {@code Iterator} over the elements of the JSON array at the current position of the specified
+     * {@code JsonReader}. Elements are deserialized using the specified {@code Gson} instance.
+     * <p>
+     * The array may be the top-level value or nested within the document. Nothing is read until the iterator is first
+     * used, and each element is deserialized only when the iterator is advanced, so arrays of any length can be
+     * processed in constant memory. Once all elements have been returned the reader is positioned after the end of the
+     * array. JSON {@code null} elements are returned as deserialized by the element adapter, usually {@code null}.
+     * <p>
+     * The iterator does not close the reader, and does not support {@link Iterator#remove() removal}.
+     * 
+     * @param <T>  the type of elements
+     * @param gson the {@code Gson} instance used to deserialize elements
+     * @param in   the {@code JsonReader} to read from
+     * @param type the {@link Type} of elements
+     * @return a lazy {@code Iterator} over the elements of the JSON array
+     * @throws JsonIOException     (from the iterator) if an I/O error occurs
+     * @throws JsonSyntaxException (from the iterator) if the reader is not positioned at a JSON array or an element is not
+     *                             a valid representation of the specified type
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Iterator<T> iterateArray(final Gson gson, final JsonReader in, final Type type) {
+        checkNotNull(gson, "gson == null");
+        checkNotNull(in, "in == null");
+        checkNotNull(type, "type == null");
+
+        final TypeAdapter<T> adapter = (TypeAdapter<T>) gson.getAdapter(TypeToken.get(type));
+
+        return new AbstractIterator<T>() {
+            private boolean started = false;
+
+            @Override
+            protected T computeNext() {
+                try {
+                    if (!started) {
+                        in.beginArray();
+                        started = true;
+                    }
+
+                    if (in.hasNext())
+                        return adapter.read(in);
+
+                    in.endArray();
+                    return endOfData();
+                } catch (final EOFException | MalformedJsonException | NumberFormatException | IllegalStateException e) { // see Streams.parse(JsonReader)
+                    throw new JsonSyntaxException(e);
+                } catch (final IOException e) {
+                    throw new JsonIOException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns a lazy sequential {@code Stream} of the elements of the JSON array at the current position of the specified
+     * {@code JsonReader}. Elements are deserialized using the {@link #getGson() default Gson instance}.
+     * <p>
+     * Equivalent to {@link #streamArray(Gson, JsonReader, Type) streamArray(getGson(), in, type)}.
+     * 
+     * @param <T>  the type of elements
+     * @param in   the {@code JsonReader} to read from
+     * @param type the {@link Type} of elements
+     * @return a lazy sequential {@code Stream} of the elements of the JSON array
+     */
+    public static <T> Stream<T> streamArray(final JsonReader in, final Type type) {
+        return streamArray(getGson(), in, type);
+    }
+
+    /**
+     * Returns a lazy sequential {@code Stream} of the elements of the JSON array at the current position of the specified
+     * {@code JsonReader}. Elements are deserialized using the specified {@code Gson} instance.
+     * <p>
+     * See {@link #iterateArray(Gson, JsonReader, Type)} for details. {@link Stream#close() Closing} the stream closes the
+     * reader, so it is best used in a try-with-resources statement: <pre><code class="line-numbers match-braces language-java">
+     *   try (final Stream&lt;Record&gt; records = GsonHelper.streamArray(gson, GsonHelper.newJsonReader(path), Record.class)) {
+     *       records.filter(Record::isActive).forEach(sink);
+     *   }
+     * </code></pre>
+     * 
+     * @param <T>  the type of elements
+     * @param gson the {@code Gson} instance used to deserialize elements
+     * @param in   the {@code JsonReader} to read from
+     * @param type the {@link Type} of elements
+     * @return a lazy sequential {@code Stream} of the elements of the JSON array
+     * @throws JsonIOException     (from the stream) if an I/O error occurs
+     * @throws JsonSyntaxException (from the stream) if the reader is not positioned at a JSON array or an element is not a
+     *                             valid representation of the specified type
+     */
+    public static <T> Stream<T> streamArray(final Gson gson, final JsonReader in, final Type type) {
+        final Iterator<T> iterator = iterateArray(gson, in, type);
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false).onClose(() -> {
+            try {
+                in.close();
+            } catch (final IOException e) {
+                throw new JsonIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Reads the newline-delimited JSON (<a href="http://ndjson.org">NDJSON</a>) or
+     * <a href="https://tools.ietf.org/html/rfc7464">RFC 7464</a> records in the remaining bytes of the specified
+     * {@code ByteBuffer}, decoding them in parallel on the {@link ForkJoinPool#commonPool() common pool}. Records are
+     * deserialized using the {@link #getGson() default Gson instance} and passed to the consumer in input order.
+     * <p>
+     * Equivalent to {@link #readJsonLines(Gson, ByteBuffer, Type, Executor, boolean, Consumer) readJsonLines(getGson(),
+     * buffer, type, ForkJoinPool.commonPool(), true, consumer)}.
+     * 
+     * @param <T>      the type of records
+     * @param buffer   the {@link StandardCharsets#UTF_8 UTF-8} encoded records
+     * @param type     the {@link Type} of records
+     * @param consumer the consumer of the deserialized records
+     * @throws JsonSyntaxException if a record is not a valid representation of the specified type
+     */
+    public static <T> void readJsonLines(final ByteBuffer buffer, final Type type, final Consumer<? super T> consumer) {
+        readJsonLines(getGson(), buffer, type, ForkJoinPool.commonPool(), true, consumer);
+    }
+
+    /**
+     * Reads the newline-delimited JSON (<a href="http://ndjson.org">NDJSON</a>) or
+     * <a href="https://tools.ietf.org/html/rfc7464">RFC 7464</a> records in the remaining bytes of the specified
+     * {@code ByteBuffer}, decoding them in parallel using the given {@code Executor}. Records are deserialized using the
+     * specified {@code Gson} instance. The position of the buffer is not modified.
+     * <p>
+     * Records are delimited by line feeds, unless the input starts with an ASCII record separator ({@code 0x1E}), in
+     * which case it is read as an RFC 7464 JSON text sequence whose records may span several lines. Blank records are
+     * ignored.
+     * <p>
+     * The input is split into records at the byte level, and batches of records are decoded concurrently. The consumer is
+     * always invoked on the calling thread: in input order if {@code ordered} is {@code true}, otherwise in the order in
+     * which batches finish decoding. Only a bounded number of batches are decoded ahead of the consumer.
+     * <p>
+     * This method blocks until all records have been passed to the consumer. If a record cannot be decoded the exception
+     * is rethrown, and no further records are passed to the consumer.
+     * 
+     * @param <T>      the type of records
+     * @param gson     the {@code Gson} instance used to deserialize records
+     * @param buffer   the {@link StandardCharsets#UTF_8 UTF-8} encoded records
+     * @param type     the {@link Type} of records
+     * @param executor the {@code Executor} used to decode records
+     * @param ordered  whether records are passed to the consumer in input order
+     * @param consumer the consumer of the deserialized records
+     * @throws JsonSyntaxException if a record is not a valid representation of the specified type
+     */
+    public static <T> void readJsonLines(final Gson gson, final ByteBuffer buffer, final Type type, final Executor executor, final boolean ordered, final Consumer<? super T> consumer) {
+        checkNotNull(gson, "gson == null");
+        checkNotNull(buffer, "buffer == null");
+        checkNotNull(type, "type == null");
+        checkNotNull(executor, "executor == null");
+        checkNotNull(consumer, "consumer == null");
+        JsonLines.read(gson, buffer, type, executor, ordered, consumer);
+    }
+
+    /**
+     * Reads the newline-delimited JSON (<a href="http://ndjson.org">NDJSON</a>) or
+     * <a href="https://tools.ietf.org/html/rfc7464">RFC 7464</a> records in the specified file, decoding them in parallel
+     * on the {@link ForkJoinPool#commonPool() common pool}. Records are deserialized using the {@link #getGson() default
+     * Gson instance} and passed to the consumer in input order.
+     * <p>
+     * Equivalent to {@link #readJsonLines(Gson, Path, Type, Executor, boolean, Consumer) readJsonLines(getGson(), path,
+     * type, ForkJoinPool.commonPool(), true, consumer)}.
+     * 
+     * @param <T>      the type of records
+     * @param path     the {@link StandardCharsets#UTF_8 UTF-8} encoded file to read from
+     * @param type     the {@link Type} of records
+     * @param consumer the consumer of the deserialized records
+     * @throws IOException         if an I/O error occurs
+     * @throws JsonSyntaxException if a record is not a valid representation of the specified type
+     */
+    public static <T> void readJsonLines(final Path path, final Type type, final Consumer<? super T> consumer) throws IOException {
+        readJsonLines(getGson(), path, type, ForkJoinPool.commonPool(), true, consumer);
+    }
+
+    /**
+     * Reads the newline-delimited JSON (<a href="http://ndjson.org">NDJSON</a>) or
+     * <a href="https://tools.ietf.org/html/rfc7464">RFC 7464</a> records in the specified file, decoding them in parallel
+     * using the given {@code Executor}. Records are deserialized using the specified {@code Gson} instance.
+     * <p>
+     * The file is read through memory mappings, see {@link #newJsonReader(Path)}; no single record may exceed 1 GB. See
+     * {@link #readJsonLines(Gson, ByteBuffer, Type, Executor, boolean, Consumer)} for details.
+     * 
+     * @param <T>      the type of records
+     * @param gson     the {@code Gson} instance used to deserialize records
+     * @param path     the {@link StandardCharsets#UTF_8 UTF-8} encoded file to read from
+     * @param type     the {@link Type} of records
+     * @param executor the {@code Executor} used to decode records
+     * @param ordered  whether records are passed to the consumer in input order
+     * @param consumer the consumer of the deserialized records
+     * @throws IOException         if an I/O error occurs
+     * @throws JsonSyntaxException if a record is not a valid representation of the specified type
+     */
+    public static <T> void readJsonLines(final Gson gson, final Path path, final Type type, final Executor executor, final boolean ordered, final Consumer<? super T> consumer)
+            throws IOException {
+        checkNotNull(gson, "gson == null");
+        checkNotNull(path, "path == null");
+        checkNotNull(type, "type == null");
+        checkNotNull(executor, "executor == null");
+        checkNotNull(consumer, "consumer == null");
+        JsonLines.read(gson, path, Utf8Reader.WINDOW_SIZE, type, executor, ordered, consumer);
+    }
+
+    /**
+     * Returns a new {@link JsonLinesWriter} which writes newline-delimited JSON (<a href="http://ndjson.org">NDJSON</a>)
+     * records to the specified writer, serializing them using the {@link #getGson() default Gson instance}.
+     * 
+     * @param writer the underlying writer
+     * @return a new {@code JsonLinesWriter} which writes newline-delimited JSON records to the specified writer
+     */
+    public static JsonLinesWriter newJsonLinesWriter(final Writer writer) {
+        return new JsonLinesWriter(getGson(), writer);
+    }
+
+    /**
+     * Deserializes the top-level JSON array in the specified UTF-8 encoded bytes into a list, binding its elements in
+     * parallel on the {@link ForkJoinPool#commonPool() common pool} using the {@link #getGson() default Gson instance}.
+     * <p>
+     * Equivalent to {@link #parseArrayParallel(Gson, ByteBuffer, Type, Executor) parseArrayParallel(getGson(),
+     * ByteBuffer.wrap(bytes), type, ForkJoinPool.commonPool())}.
+     * 
+     * @param <T>   the type of elements
+     * @param bytes the {@link StandardCharsets#UTF_8 UTF-8} encoded JSON array
+     * @param type  the {@link Type} of elements
+     * @return a new list containing the deserialized elements in array order
+     * @throws JsonSyntaxException if the input is not a JSON array or an element is not a valid representation of the
+     *                             specified type
+     */
+    public static <T> List<T> parseArrayParallel(final byte[] bytes, final Type type) {
+        checkNotNull(bytes, "bytes == null");
+        return parseArrayParallel(getGson(), ByteBuffer.wrap(bytes), type, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Deserializes the top-level JSON array in the remaining bytes of the specified {@code ByteBuffer} into a list,
+     * binding its elements in parallel using the given {@code Executor} and the specified {@code Gson} instance. The
+     * position of the buffer is not modified.
+     * <p>
+     * A structural pre-scan of the raw bytes finds the boundaries of the elements of the array without decoding them. The
+     * elements are split into batches of about 1 MB, which are bound concurrently while the scan continues, so wall-clock
+     * time scales with the number of threads available to the executor rather than being bound by a single
+     * {@code JsonReader}. The pre-scan checks only the structure of the array; each element is validated when it is bound.
+     * <p>
+     * This method blocks until all elements have been bound. If an element cannot be bound the exception is rethrown.
+     * 
+     * @param <T>      the type of elements
+     * @param gson     the {@code Gson} instance used to deserialize elements
+     * @param buffer   the {@link StandardCharsets#UTF_8 UTF-8} encoded JSON array
+     * @param type     the {@link Type} of elements
+     * @param executor the {@code Executor} used to bind elements
+     * @return a new list containing the deserialized elements in array order
+     * @throws JsonSyntaxException if the input is not a JSON array or an element is not a valid representation of the
+     *                             specified type
+     */
+    public static <T> List<T> parseArrayParallel(final Gson gson, final ByteBuffer buffer, final Type type, final Executor executor) {
+        checkNotNull(gson, "gson == null");
+        checkNotNull(buffer, "buffer == null");
+        checkNotNull(type, "type == null");
+        checkNotNull(executor, "executor == null");
+        return JsonArrays.parse(gson, buffer, type, executor);
+    }
+
+    /**
+     * Deserializes the top-level JSON array in the specified file into a list, binding its elements in parallel on the
+     * {@link ForkJoinPool#commonPool() common pool} using the {@link #getGson() default Gson instance}.
+     * <p>
+     * Equivalent to {@link #parseArrayParallel(Gson, Path, Type, Executor) parseArrayParallel(getGson(), path, type,
+     * ForkJoinPool.commonPool())}.
+     * 
+     * @param <T>  the type of elements
+     * @param path the {@link StandardCharsets#UTF_8 UTF-8} encoded file to read from
+     * @param type the {@link Type} of elements
+     * @return a new list containing the deserialized elements in array order
+     * @throws IOException         if an I/O error occurs
+     * @throws JsonSyntaxException if the file does not contain a JSON array or an element is not a valid representation
+     *                             of the specified type
+     */
+    public static <T> List<T> parseArrayParallel(final Path path, final Type type) throws IOException {
+        return parseArrayParallel(getGson(), path, type, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Deserializes the top-level JSON array in the specified file into a list, binding its elements in parallel using the
+     * given {@code Executor} and the specified {@code Gson} instance.
+     * <p>
+     * The file is read through memory mappings, see {@link #newJsonReader(Path)}, and may be larger than 2 GB. See
+     * {@link #parseArrayParallel(Gson, ByteBuffer, Type, Executor)} for details.
+     * 
+     * @param <T>      the type of elements
+     * @param gson     the {@code Gson} instance used to deserialize elements
+     * @param path     the {@link StandardCharsets#UTF_8 UTF-8} encoded file to read from
+     * @param type     the {@link Type} of elements
+     * @param executor the {@code Executor} used to bind elements
+     * @return a new list containing the deserialized elements in array order
+     * @throws IOException         if an I/O error occurs
+     * @throws JsonSyntaxException if the file does not contain a JSON array or an element is not a valid representation
+     *                             of the specified type
+     */
+    public static <T> List<T> parseArrayParallel(final Gson gson, final Path path, final Type type, final Executor executor) throws IOException {
+        checkNotNull(gson, "gson == null");
+        checkNotNull(path, "path == null");
+        checkNotNull(type, "type == null");
+        checkNotNull(executor, "executor == null");
+        return JsonArrays.parse(gson, path, Utf8Reader.WINDOW_SIZE, type, executor);
+    }
+
+    /**
+     * Reads the {@code Multiset} values from the specified readers in parallel on the
+     * {@link ForkJoinPool#commonPool() common pool}, and merges them into a single {@code ConcurrentHashMultiset}.
+     * Elements are read using the {@link #getGson() default Gson instance}.
+     * <p>
+     * Equivalent to {@link #mergeMultisets(Gson, Type, Iterable, Executor) mergeMultisets(getGson(), elementType, readers,
+     * ForkJoinPool.commonPool())}.
+     * 
+     * @param <E>         the type of elements
+     * @param elementType the {@link Type} of elements
+     * @param readers     the readers to read from
+     * @return a {@code ConcurrentHashMultiset} containing the sum of all {@code Multiset} values
+     * @throws JsonIOException     if an I/O error occurs
+     * @throws JsonSyntaxException if any reader does not contain a valid {@code Multiset} value
+     */
+    public static <E> ConcurrentHashMultiset<E> mergeMultisets(final Type elementType, final Iterable<? extends Reader> readers) {
+        return mergeMultisets(getGson(), elementType, readers, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Reads the {@code Multiset} values from the specified readers in parallel using the given {@code Executor}, and
+     * merges them into a single {@code ConcurrentHashMultiset}. Elements are read using the specified {@code Gson}
+     * instance.
+     * <p>
+     * Element counts are added to the resulting {@code ConcurrentHashMultiset} as soon as they are read, without creating
+     * an intermediate {@code Multiset} for each reader. Both wire formats written by {@link MultisetTypeAdapter} are
+     * accepted; JSON {@code null}s are ignored. Each reader is closed after it has been read.
+     * <p>
+     * This method blocks until all readers have been read. If any of them fails the first exception is rethrown after the
+     * remaining readers have been read.
+     * 
+     * @param <E>         the type of elements
+     * @param gson        the {@code Gson} instance used to read elements
+     * @param elementType the {@link Type} of elements
+     * @param readers     the readers to read from
+     * @param executor    the {@code Executor} used to read each reader
+     * @return a {@code ConcurrentHashMultiset} containing the sum of all {@code Multiset} values
+     * @throws JsonIOException     if an I/O error occurs
+     * @throws JsonSyntaxException if any reader does not contain a valid {@code Multiset} value
+     */
+    public static <E> ConcurrentHashMultiset<E> mergeMultisets(final Gson gson, final Type elementType, final Iterable<? extends Reader> readers, final Executor executor) {
+        checkNotNull(readers, "readers == null");
+        return merge(gson, elementType, Iterables.transform(readers, reader -> () -> checkNotNull(reader, "reader == null")), executor);
+    }
+
+    /**
+     * Reads the {@code Multiset} values from the specified {@link StandardCharsets#UTF_8 UTF-8} encoded files in
+     * parallel on the {@link ForkJoinPool#commonPool() common pool}, and merges them into a single
+     * {@code ConcurrentHashMultiset}. Elements are read using the {@link #getGson() default Gson instance}.
+     * <p>
+     * Equivalent to {@link #mergeMultisetFiles(Gson, Type, Iterable, Executor) mergeMultisetFiles(getGson(), elementType,
+     * paths, ForkJoinPool.commonPool())}.
+     * 
+     * @param <E>         the type of elements
+     * @param elementType the {@link Type} of elements
+     * @param paths       the files to read from
+     * @return a {@code ConcurrentHashMultiset} containing the sum of all {@code Multiset} values
+     * @throws JsonIOException     if an I/O error occurs
+     * @throws JsonSyntaxException if any file does not contain a valid {@code Multiset} value
+     */
+    public static <E> ConcurrentHashMultiset<E> mergeMultisetFiles(final Type elementType, final Iterable<? extends Path> paths) {
+        return mergeMultisetFiles(getGson(), elementType, paths, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Reads the {@code Multiset} values from the specified {@link StandardCharsets#UTF_8 UTF-8} encoded files in
+     * parallel using the given {@code Executor}, and merges them into a single {@code ConcurrentHashMultiset}. Elements
+     * are read using the specified {@code Gson} instance.
+     * <p>
+     * See {@link #mergeMultisets(Gson, Type, Iterable, Executor)} for details.
+     * 
+     * @param <E>         the type of elements
+     * @param gson        the {@code Gson} instance used to read elements
+     * @param elementType the {@link Type} of elements
+     * @param paths       the files to read from
+     * @param executor    the {@code Executor} used to read each file
+     * @return a {@code ConcurrentHashMultiset} containing the sum of all {@code Multiset} values
+     * @throws JsonIOException     if an I/O error occurs
+     * @throws JsonSyntaxException if any file does not contain a valid {@code Multiset} value
+     */
+    public static <E> ConcurrentHashMultiset<E> mergeMultisetFiles(final Gson gson, final Type elementType, final Iterable<? extends Path> paths, final Executor executor) {
+        checkNotNull(paths, "paths == null");
+        return merge(gson, elementType, Iterables.transform(paths, path -> () -> Files.newBufferedReader(checkNotNull(path, "path == null"), StandardCharsets.UTF_8)), executor);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> ConcurrentHashMultiset<E> merge(final Gson gson, final Type elementType, final Iterable<Callable<Reader>> sources, final Executor executor) {
+        checkNotNull(gson, "gson == null");
+        checkNotNull(elementType, "elementType == null");
+        checkNotNull(executor, "executor == null");
+
+        final TypeAdapter<?> adapter = gson.getAdapter(TypeToken.getParameterized(Multiset.class, elementType)); // cached by Gson
+
+        final MultisetTypeAdapter<E>    multisetAdapter = adapter instanceof MultisetTypeAdapter ? (MultisetTypeAdapter<E>) adapter : new MultisetTypeAdapter<>(gson, elementType);
+        final ConcurrentHashMultiset<E> target          = ConcurrentHashMultiset.create();
+
+        final List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+        for (final Callable<Reader> source : sources)
+            futures.add(CompletableFuture.runAsync(() -> {
+                try (final Reader reader = source.call(); final JsonReader in = gson.newJsonReader(reader)) {
+                    multisetAdapter.readEntries(in, target::add);
+                } catch (final EOFException | MalformedJsonException | NumberFormatException | IllegalStateException e) { // see Streams.parse(JsonReader)
+                    throw new JsonSyntaxException(e);
+                } catch (final IOException e) {
+                    throw new JsonIOException(e);
+                } catch (final RuntimeException e) {
+                    throw e;
+                } catch (final Exception e) {
+                    throw new JsonIOException(e);
+                }
+            }, executor));
+
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).join();
+        } catch (final CompletionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw e;
+        }
+
+        return target;
+    }
+
+    /**
+     * Resolves and caches the {@code TypeAdapter}s for the specified types in the {@link #getGson() default Gson
+     * instance}, returning the time spent resolving each type.
+     * <p>
+     * Equivalent to {@link #prewarm(Gson, Iterable) prewarm(getGson(), Arrays.asList(types))}.
+     * 
+     * @param types the types to resolve
+     * @return the time spent resolving each type, in iteration order
+     */
+    public static Map<Type, Duration> prewarm(final Type... types) {
+        checkNotNull(types, "types == null");
+        return prewarm(getGson(), Arrays.asList(types));
+    }
+
+    /**
+     * Resolves and caches the {@code TypeAdapter}s for the specified types in the given {@code Gson} instance, returning
+     * the time spent resolving each type.
+     * <p>
+     * {@code Gson} resolves the adapter for a type, and for all the types it refers to, the first time the type is
+     * serialized or deserialized. Calling this method ahead of time (for example during application startup) moves that
+     * cost out of the first request. Types which have already been resolved take next to no time.
+     * 
+     * @param gson  the {@code Gson} instance in which to cache the resolved {@code TypeAdapter}s
+     * @param types the types to resolve
+     * @return the time spent resolving each type, in iteration order
+     * @throws IllegalArgumentException if {@code gson} cannot handle any of the types
+     */
+    public static Map<Type, Duration> prewarm(final Gson gson, final Iterable<? extends Type> types) {
+        checkNotNull(gson, "gson == null");
+        checkNotNull(types, "types == null");
+
+        final Map<Type, Duration> timings = new LinkedHashMap<>();
+
+        for (final Type type : types) {
+            checkNotNull(type, "type == null");
+
+            final long start = System.nanoTime();
+            gson.getAdapter(TypeToken.get(type));
+            timings.putIfAbsent(type, Duration.ofNanos(System.nanoTime() - start));
+        }
+
+        return Collections.unmodifiableMap(timings);
+    }
+
+    /**
+     * Resolves and caches the {@code TypeAdapter}s for the specified types in the {@link #getGson() default Gson
+     * instance} on the {@link ForkJoinPool#commonPool() common pool}.
+     * <p>
+     * Equivalent to {@link #prewarmAsync(Gson, Iterable, Executor) prewarmAsync(getGson(), Arrays.asList(types),
+     * ForkJoinPool.commonPool())}.
+     * 
+     * @param types the types to resolve
+     * @return a {@code CompletableFuture} which completes with the time spent resolving each type, in iteration order
+     */
+    public static CompletableFuture<Map<Type, Duration>> prewarmAsync(final Type... types) {
+        checkNotNull(types, "types == null");
+        return prewarmAsync(getGson(), Arrays.asList(types), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Resolves and caches the {@code TypeAdapter}s for the specified types in the given {@code Gson} instance using the
+     * specified {@code Executor}.
+     * <p>
+     * See {@link #prewarm(Gson, Iterable)} for details. {@code Gson} instances are thread-safe, so the application can
+     * start serving requests while the adapters are being resolved.
+     * 
+     * @param gson     the {@code Gson} instance in which to cache the resolved {@code TypeAdapter}s
+     * @param types    the types to resolve
+     * @param executor the {@code Executor} used to resolve the types
+     * @return a {@code CompletableFuture} which completes with the time spent resolving each type, in iteration order
+     */
+    public static CompletableFuture<Map<Type, Duration>> prewarmAsync(final Gson gson, final Iterable<? extends Type> types, final Executor executor) {
+        checkNotNull(gson, "gson == null");
+        checkNotNull(types, "types == null");
+        checkNotNull(executor, "executor == null");
+
+        final List<Type> copy = ImmutableList.copyOf(types);
+
+        return CompletableFuture.supplyAsync(() -> prewarm(gson, copy), executor);
+    }
+
+    /**
+     * Resolves and caches the {@code TypeAdapter}s in the {@link #getGson() default Gson instance} for all concrete
+     * classes in the specified package and its subpackages, returning the time spent resolving each class.
+     * <p>
+     * Equivalent to {@link #prewarmPackage(Gson, String, ClassLoader, Predicate) prewarmPackage(getGson(), packageName,
+     * Thread.currentThread().getContextClassLoader(), clazz -&gt; true)}.
+     * 
+     * @param packageName the name of the package to scan, for example {@code "com.example.dto"}
+     * @return the time spent resolving each class, in scan order
+     * @throws IOException if an I/O error occurs while scanning the class path
+     */
+    public static Map<Type, Duration> prewarmPackage(final String packageName) throws IOException {
+        return prewarmPackage(getGson(), packageName, Thread.currentThread().getContextClassLoader(), clazz -> true);
+    }
+
+    /**
+     * Resolves and caches the {@code TypeAdapter}s in the specified {@code Gson} instance for the concrete classes in the
+     * specified package and its subpackages which satisfy the given predicate, returning the time spent resolving each
+     * class.
+     * <p>
+     * Classes are found by scanning the class path of the specified {@code ClassLoader}, and are loaded without being
+     * initialized. Interfaces, annotations, abstract, anonymous, local, and synthetic classes are ignored.
+     * <p>
+     * See {@link #prewarm(Gson, Iterable)} for details.
+     * 
+     * @param gson        the {@code Gson} instance in which to cache the resolved {@code TypeAdapter}s
+     * @param packageName the name of the package to scan, for example {@code "com.example.dto"}
+     * @param loader      the {@code ClassLoader} whose class path is scanned
+     * @param filter      the predicate which selects the classes to resolve
+     * @return the time spent resolving each class, in scan order
+     * @throws IOException if an I/O error occurs while scanning the class path
+     */
+    public static Map<Type, Duration> prewarmPackage(final Gson gson, final String packageName, final ClassLoader loader, final Predicate<? super Class<?>> filter) throws IOException {
+        checkNotNull(gson, "gson == null");
+        checkNotNull(packageName, "packageName == null");
+        checkNotNull(loader, "loader == null");
+        checkNotNull(filter, "filter == null");
+
+        final String prefix = packageName + ".";
+
+        final List<Class<?>> classes = new ArrayList<>();
+
+        for (final ClassInfo info : ClassPath.from(loader).getAllClasses()) {
+            if (!info.getName().startsWith(prefix) || info.getSimpleName().endsWith("-info")) // package-info and module-info
+                continue;
+
+            final Class<?> clazz = info.load();
+
+            if (clazz.isInterface() || clazz.isAnnotation() || Modifier.isAbstract(clazz.getModifiers()) || clazz.isAnonymousClass() || clazz.isLocalClass() || clazz.isSynthetic())
+                continue;
+
+            if (filter.test(clazz))
+                classes.add(clazz);
+        }
+
+        return prewarm(gson, classes);
+    }
+
     /**
      * Returns a singleton {@link JsonParser} instance which can parse JSON text into a parse tree of {@link JsonElement}s.
      * 
@@ -477,6 +1497,9 @@ public final class GsonHelper {
 
     /**
      * Writes the specified {@code JsonElement} to the given {@code JsonWriter}.
+     * <p>
+     * The tree is walked directly, without an intermediate {@code JsonReader}: primitives are written as they are, and
+     * deeply nested trees cannot overflow the call stack.
      * 
      * @param <W>     the type of {@code JsonWriter}
      * @param element the specified {@code JsonElement}
@@ -487,7 +1510,8 @@ public final class GsonHelper {
     public static <W extends JsonWriter> W writeElement(final JsonElement element, final W out) throws IOException {
         checkNotNull(element, "element == null");
         checkNotNull(out, "out == null");
-        return copy(new JsonTreeReader(element), out);
+        JsonElementWriter.write(element, out).flush();
+        return out;
     }
 
     /**
@@ -498,20 +1522,123 @@ public final class GsonHelper {
      */
     public static String prettify(final JsonElement element) {
         checkNotNull(element, "element == null");
-        return getGson().toJson(element);
+
+        final StringWriter writer = new StringWriter();
+        try {
+            final JsonWriter out = newJsonWriter(writer);
+            out.setLenient(true); // as by Gson.toJson(JsonElement)
+            JsonElementWriter.write(element, out);
+        } catch (final IOException e) {
+            throw new AssertionError(e);
+        }
+        return writer.toString();
     }
 
     /**
      * Returns <i>pretty printed</i> JSON text from the original unformatted string.
      * <p>
      * The JSON string must be valid according to <a href="http://www.ietf.org/rfc/rfc4627.txt">RFC 4627</a>.
+     * Equivalent to {@link #prettify(Reader, Writer)} with a {@code StringReader} and {@code StringWriter}.
      * 
      * @param text the JSON {@code String} to format
      * @return <i>pretty printed</i> JSON text from the original unformatted string
      */
     public static String prettify(final String text) {
         checkNotNull(text, "text == null");
-        return getGson().toJson(parseJson(text));
+
+        final StringWriter writer = new StringWriter();
+        prettify(new StringReader(text), writer);
+        return writer.toString();
+    }
+
+    /**
+     * Reads JSON text from the specified reader and writes it to the given writer <i>pretty printed</i>, as by the
+     * {@link #getGson() default Gson instance}.
+     * <p>
+     * The text is reformatted token by token without building a parse tree, so memory use does not depend on the size of
+     * the input. Numbers are written exactly as they appear in the input. The input is parsed as by
+     * {@link #parseJson(Reader)}: it is read leniently, must consist of a single JSON value, and empty input is written
+     * as {@code null}.
+     * <p>
+     * The writer is not buffered by this method. Does not close the reader or the writer.
+     * 
+     * @param reader the reader to read JSON text from
+     * @param writer the writer to write the <i>pretty printed</i> JSON text to
+     * @throws JsonIOException     if an I/O error occurs
+     * @throws JsonSyntaxException if the input is not valid JSON text
+     */
+    public static void prettify(final Reader reader, final Writer writer) {
+        reformat(reader, writer, Profile.PRETTY);
+    }
+
+    /**
+     * Returns the specified JSON text without any insignificant whitespace.
+     * <p>
+     * Equivalent to {@link #minify(Reader, Writer)} with a {@code StringReader} and {@code StringWriter}.
+     * 
+     * @param text the JSON {@code String} to minify
+     * @return the specified JSON text without any insignificant whitespace
+     * @throws JsonSyntaxException if the text is not valid JSON text
+     */
+    public static String minify(final String text) {
+        checkNotNull(text, "text == null");
+
+        final StringWriter writer = new StringWriter();
+        minify(new StringReader(text), writer);
+        return writer.toString();
+    }
+
+    /**
+     * Reads JSON text from the specified reader and writes it to the given writer without any insignificant whitespace,
+     * as by the {@link Profile#COMPACT compact} Gson instance.
+     * <p>
+     * The text is reformatted token by token without building a parse tree, see {@link #prettify(Reader, Writer)}.
+     * <p>
+     * The writer is not buffered by this method. Does not close the reader or the writer.
+     * 
+     * @param reader the reader to read JSON text from
+     * @param writer the writer to write the minified JSON text to
+     * @throws JsonIOException     if an I/O error occurs
+     * @throws JsonSyntaxException if the input is not valid JSON text
+     */
+    public static void minify(final Reader reader, final Writer writer) {
+        reformat(reader, writer, Profile.COMPACT);
+    }
+
+    /*
+     * Copies a single JSON value token by token, mirroring the leniency, empty input, and trailing data handling of
+     * JsonParser.parse(Reader).
+     */
+    private static void reformat(final Reader reader, final Writer writer, final Profile profile) {
+        checkNotNull(reader, "reader == null");
+        checkNotNull(writer, "writer == null");
+
+        final JsonReader in = new JsonReader(reader);
+        in.setLenient(true);
+
+        try {
+            final JsonWriter out = newJsonWriter(writer, profile);
+
+            JsonToken peek;
+            try {
+                peek = in.peek();
+            } catch (final EOFException e) { // empty input
+                out.nullValue().flush();
+                return;
+            }
+
+            for (int depth = copy(peek, in, out, true); depth > 0;)
+                depth += copy(in.peek(), in, out, true);
+
+            if (in.peek() != JsonToken.END_DOCUMENT)
+                throw new JsonSyntaxException("Did not consume the entire document.");
+
+            out.flush();
+        } catch (final EOFException | MalformedJsonException | NumberFormatException | IllegalStateException e) { // see Streams.parse(JsonReader)
+            throw new JsonSyntaxException(e);
+        } catch (final IOException e) {
+            throw new JsonIOException(e);
+        }
     }
 
 }
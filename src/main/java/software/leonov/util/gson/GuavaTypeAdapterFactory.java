@@ -0,0 +1,271 @@
+package software.leonov.util.gson;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.function.Supplier;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.MultimapBuilder;
+import com.google.common.collect.Multiset;
+import com.google.common.collect.Table;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * Creates {@link TypeAdapter}s for serializing and deserializing {@link Optional}, {@link OptionalInt},
+ * {@link OptionalLong}, {@link OptionalDouble}, {@link Multiset}, {@link Multimap}, and {@link Table} values to and
+ * from JSON.
+ * <p>
+ * This factory combines {@link OptionalTypeAdapterFactory}, {@link OptionalIntTypeAdapter},
+ * {@link OptionalLongTypeAdapter}, {@link OptionalDoubleTypeAdapter}, {@link MultisetTypeAdapterFactory},
+ * {@link MultimapTypeAdapterFactory}, and {@link TableTypeAdapterFactory}. The factory responsible for each raw type is
+ * determined once, the first time the type is seen, and cached in a {@link ClassValue}. Types which are not supported
+ * are rejected by a single lookup rather than a check by each factory in turn.
+ * <p>
+ * <b>Custom Implementations:</b>
+ * <p>
+ * Implementations which are not supported by the individual factories can be deserialized by registering a
+ * {@link Supplier} of empty instances for their raw type. For example: <pre><code class="line-numbers match-braces language-java">
+ *   final GuavaTypeAdapterFactory factory = new GuavaTypeAdapterFactory()
+ *           .withMultimap(ListMultimap.class, () -&gt; MultimapBuilder.treeKeys().arrayListValues().build());
+ * </code></pre> A registered {@code Supplier} applies to its exact raw type only, and takes precedence over the built-in
+ * implementation for that type.
+ *
+ * @author Zhenya Leonov
+ */
+public final class GuavaTypeAdapterFactory implements TypeAdapterFactory {
+
+    private static final TypeAdapterFactory NONE = new TypeAdapterFactory() {
+        @Override
+        public <T> TypeAdapter<T> create(final Gson gson, final TypeToken<T> typeToken) {
+            return null;
+        }
+    };
+
+    private static final TypeAdapterFactory OPTIONAL_DOUBLES = new TypeAdapterFactory() {
+        @SuppressWarnings("unchecked")
+        @Override
+        public <T> TypeAdapter<T> create(final Gson gson, final TypeToken<T> typeToken) {
+            return (TypeAdapter<T>) new OptionalDoubleTypeAdapter(gson);
+        }
+    };
+
+    private final OptionalTypeAdapterFactory                 optionals = new OptionalTypeAdapterFactory();
+    private final MultisetTypeAdapterFactory                 multisets;
+    private final MultimapTypeAdapterFactory                 multimaps;
+    private final TableTypeAdapterFactory                    tables;
+    private final ImmutableMap<Class<?>, TypeAdapterFactory> custom;
+
+    private final ClassValue<TypeAdapterFactory> factories = new ClassValue<TypeAdapterFactory>() {
+        @Override
+        protected TypeAdapterFactory computeValue(final Class<?> clazz) {
+            return lookup(clazz);
+        }
+    };
+
+    /**
+     * Constructs a new {@code GuavaTypeAdapterFactory}.
+     */
+    public GuavaTypeAdapterFactory() {
+        this(new MultisetTypeAdapterFactory(), new MultimapTypeAdapterFactory(), new TableTypeAdapterFactory(), ImmutableMap.of());
+    }
+
+    private GuavaTypeAdapterFactory(final MultisetTypeAdapterFactory multisets, final MultimapTypeAdapterFactory multimaps, final TableTypeAdapterFactory tables,
+            final ImmutableMap<Class<?>, TypeAdapterFactory> custom) {
+        this.multisets = multisets;
+        this.multimaps = multimaps;
+        this.tables    = tables;
+        this.custom    = custom;
+    }
+
+    /**
+     * Returns a new {@code GuavaTypeAdapterFactory} which delegates to the specified {@code MultisetTypeAdapterFactory},
+     * for example one created by {@link MultisetTypeAdapterFactory#withObjectEncoding()}.
+     *
+     * @param factory the {@code MultisetTypeAdapterFactory} to delegate to
+     * @return a new {@code GuavaTypeAdapterFactory} which delegates to the specified {@code MultisetTypeAdapterFactory}
+     */
+    public GuavaTypeAdapterFactory withMultisetFactory(final MultisetTypeAdapterFactory factory) {
+        checkNotNull(factory, "factory == null");
+        return new GuavaTypeAdapterFactory(factory, multimaps, tables, custom);
+    }
+
+    /**
+     * Returns a new {@code GuavaTypeAdapterFactory} which delegates to the specified {@code MultimapTypeAdapterFactory},
+     * for example one created by {@link MultimapTypeAdapterFactory#withAdaptiveSizing()}.
+     *
+     * @param factory the {@code MultimapTypeAdapterFactory} to delegate to
+     * @return a new {@code GuavaTypeAdapterFactory} which delegates to the specified {@code MultimapTypeAdapterFactory}
+     */
+    public GuavaTypeAdapterFactory withMultimapFactory(final MultimapTypeAdapterFactory factory) {
+        checkNotNull(factory, "factory == null");
+        return new GuavaTypeAdapterFactory(multisets, factory, tables, custom);
+    }
+
+    /**
+     * Returns a new {@code GuavaTypeAdapterFactory} which delegates to the specified {@code TableTypeAdapterFactory}, for
+     * example one created by {@link TableTypeAdapterFactory#withColumnarEncoding()}.
+     *
+     * @param factory the {@code TableTypeAdapterFactory} to delegate to
+     * @return a new {@code GuavaTypeAdapterFactory} which delegates to the specified {@code TableTypeAdapterFactory}
+     */
+    public GuavaTypeAdapterFactory withTableFactory(final TableTypeAdapterFactory factory) {
+        checkNotNull(factory, "factory == null");
+        return new GuavaTypeAdapterFactory(multisets, multimaps, factory, custom);
+    }
+
+    /**
+     * Returns a new {@code GuavaTypeAdapterFactory} which deserializes {@code Multiset}s of the specified raw type into the
+     * instances returned by the {@code supplier}.
+     *
+     * @param type     the raw type of {@code Multiset}
+     * @param supplier a {@link Supplier} which returns empty {@code Multiset} instances of the specified type
+     * @return a new {@code GuavaTypeAdapterFactory} which deserializes {@code Multiset}s of the specified raw type into the
+     *         instances returned by the {@code supplier}
+     * @throws IllegalArgumentException if {@code type} is not a {@code Multiset}
+     */
+    @SuppressWarnings("unchecked")
+    public GuavaTypeAdapterFactory withMultiset(final Class<?> type, final Supplier<? extends Multiset<?>> supplier) {
+        checkNotNull(type, "type == null");
+        checkNotNull(supplier, "supplier == null");
+        checkArgument(Multiset.class.isAssignableFrom(type), "%s is not a %s", type.getSimpleName(), Multiset.class.getSimpleName());
+
+        return with(type, new TypeAdapterFactory() {
+            @Override
+            public <T> TypeAdapter<T> create(final Gson gson, final TypeToken<T> typeToken) {
+                final Type[] types = typeArguments(typeToken, 1);
+                return (TypeAdapter<T>) new MultisetTypeAdapter<>(gson, types[0], (Supplier<Multiset<Object>>) supplier);
+            }
+        });
+    }
+
+    /**
+     * Returns a new {@code GuavaTypeAdapterFactory} which deserializes {@code Multimap}s of the specified raw type into the
+     * instances returned by the {@code supplier}, for example {@link MultimapBuilder}-configured {@link ListMultimap}s.
+     *
+     * @param type     the raw type of {@code Multimap}
+     * @param supplier a {@link Supplier} which returns empty {@code Multimap} instances of the specified type
+     * @return a new {@code GuavaTypeAdapterFactory} which deserializes {@code Multimap}s of the specified raw type into the
+     *         instances returned by the {@code supplier}
+     * @throws IllegalArgumentException if {@code type} is not a {@code Multimap}
+     */
+    @SuppressWarnings("unchecked")
+    public GuavaTypeAdapterFactory withMultimap(final Class<?> type, final Supplier<? extends Multimap<?, ?>> supplier) {
+        checkNotNull(type, "type == null");
+        checkNotNull(supplier, "supplier == null");
+        checkArgument(Multimap.class.isAssignableFrom(type), "%s is not a %s", type.getSimpleName(), Multimap.class.getSimpleName());
+
+        return with(type, new TypeAdapterFactory() {
+            @Override
+            public <T> TypeAdapter<T> create(final Gson gson, final TypeToken<T> typeToken) {
+                final Type[] types = typeArguments(typeToken, 2);
+                // @formatter:off
+                return (TypeAdapter<T>) new MultimapTypeAdapter<>(gson, types[0], types[1], (Supplier<Multimap<Object, Object>>) supplier,
+                        (MapKeyCodec<Object>) MapKeyCodecs.forType(gson, types[0]));
+                // @formatter:on
+            }
+        });
+    }
+
+    /**
+     * Returns a new {@code GuavaTypeAdapterFactory} which deserializes {@code Table}s of the specified raw type into the
+     * instances returned by the {@code supplier}.
+     *
+     * @param type     the raw type of {@code Table}
+     * @param supplier a {@link Supplier} which returns empty {@code Table} instances of the specified type
+     * @return a new {@code GuavaTypeAdapterFactory} which deserializes {@code Table}s of the specified raw type into the
+     *         instances returned by the {@code supplier}
+     * @throws IllegalArgumentException if {@code type} is not a {@code Table}
+     */
+    @SuppressWarnings("unchecked")
+    public GuavaTypeAdapterFactory withTable(final Class<?> type, final Supplier<? extends Table<?, ?, ?>> supplier) {
+        checkNotNull(type, "type == null");
+        checkNotNull(supplier, "supplier == null");
+        checkArgument(Table.class.isAssignableFrom(type), "%s is not a %s", type.getSimpleName(), Table.class.getSimpleName());
+
+        return with(type, new TypeAdapterFactory() {
+            @Override
+            public <T> TypeAdapter<T> create(final Gson gson, final TypeToken<T> typeToken) {
+                final Type[] types = typeArguments(typeToken, 3);
+                // @formatter:off
+                return (TypeAdapter<T>) new TableTypeAdapter<>(gson, types[0], types[1], types[2], (Supplier<Table<Object, Object, Object>>) supplier,
+                        (MapKeyCodec<Object>) MapKeyCodecs.forType(gson, types[0]),
+                        (MapKeyCodec<Object>) MapKeyCodecs.forType(gson, types[1]));
+                // @formatter:on
+            }
+        });
+    }
+
+    @Override
+    public <T> TypeAdapter<T> create(final Gson gson, final TypeToken<T> typeToken) {
+        checkNotNull(gson, "gson == null");
+        checkNotNull(typeToken, "typeToken == null");
+
+        return factories.get(typeToken.getRawType()).create(gson, typeToken);
+    }
+
+    private GuavaTypeAdapterFactory with(final Class<?> type, final TypeAdapterFactory factory) {
+        final Map<Class<?>, TypeAdapterFactory> map = new LinkedHashMap<>(custom);
+        map.put(type, factory);
+        return new GuavaTypeAdapterFactory(multisets, multimaps, tables, ImmutableMap.copyOf(map));
+    }
+
+    private TypeAdapterFactory lookup(final Class<?> clazz) {
+        final TypeAdapterFactory factory = custom.get(clazz);
+
+        if (factory != null)
+            return factory;
+        else if (clazz.equals(OptionalInt.class))
+            return forAdapter(new OptionalIntTypeAdapter());
+        else if (clazz.equals(OptionalLong.class))
+            return forAdapter(new OptionalLongTypeAdapter());
+        else if (clazz.equals(OptionalDouble.class))
+            return OPTIONAL_DOUBLES;
+        else if (Optional.class.isAssignableFrom(clazz))
+            return optionals;
+        else if (Multiset.class.isAssignableFrom(clazz))
+            return multisets;
+        else if (Multimap.class.isAssignableFrom(clazz))
+            return multimaps;
+        else if (Table.class.isAssignableFrom(clazz))
+            return tables;
+        else
+            return NONE;
+    }
+
+    private static TypeAdapterFactory forAdapter(final TypeAdapter<?> adapter) {
+        return new TypeAdapterFactory() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public <T> TypeAdapter<T> create(final Gson gson, final TypeToken<T> typeToken) {
+                return (TypeAdapter<T>) adapter;
+            }
+        };
+    }
+
+    private static Type[] typeArguments(final TypeToken<?> typeToken, final int count) {
+        final Type type = typeToken.getType();
+
+        if (type instanceof ParameterizedType)
+            return ((ParameterizedType) type).getActualTypeArguments();
+
+        final Type[] types = new Type[count];
+        for (int i = 0; i < count; i++)
+            types[i] = Object.class;
+        return types;
+    }
+
+}
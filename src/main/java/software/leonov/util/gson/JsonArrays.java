@@ -0,0 +1,251 @@
+package software.leonov.util.gson;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import com.google.common.base.Throwables;
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * Parses a single top-level JSON array, binding its elements in parallel.
+ * <p>
+ * A structural pre-scan of the raw bytes, which tracks only nesting depth and string literals, finds the boundaries of
+ * the elements of the array. Runs of elements totaling about {@link #BATCH_SIZE} bytes are bound by tasks submitted to
+ * the executor while the scan continues, and the results are concatenated in input order.
+ *
+ * @author Zhenya Leonov
+ */
+final class JsonArrays {
+
+    static final int BATCH_SIZE = 1 << 20;
+
+    private JsonArrays() {
+    }
+
+    static <T> List<T> parse(final Gson gson, final ByteBuffer buffer, final Type type, final Executor executor) {
+        final ByteBuffer input = buffer.slice();
+
+        final Splitter<T> splitter = new Splitter<>(gson, type, executor, (position, size) -> slice(input, (int) position, (int) position + size));
+
+        splitter.scan(input, 0);
+        return splitter.finish();
+    }
+
+    static <T> List<T> parse(final Gson gson, final Path path, final long windowSize, final Type type, final Executor executor) throws IOException {
+        checkArgument(windowSize > 0 && windowSize <= Integer.MAX_VALUE, "windowSize must be between 1 and Integer.MAX_VALUE");
+
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final Splitter<T> splitter = new Splitter<>(gson, type, executor, (position, size) -> channel.map(MapMode.READ_ONLY, position, size));
+
+            final long size = channel.size();
+
+            for (long start = 0; start < size; start += windowSize)
+                splitter.scan(channel.map(MapMode.READ_ONLY, start, Math.min(windowSize, size - start)), start);
+
+            try {
+                return splitter.finish();
+            } catch (final UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /*
+     * Maps size bytes of the input starting at the specified position.
+     */
+    @FunctionalInterface
+    private interface Source {
+        ByteBuffer map(long position, int size) throws IOException;
+    }
+
+    /*
+     * Holds the state of the scan, which may span several windows of the input. Each batch is described by the position
+     * of its first byte and the positions, relative to the start of the batch, of the comma or closing bracket which
+     * follows each of its elements.
+     */
+    private static final class Splitter<T> {
+
+        private final Gson                             gson;
+        private final Type                             type;
+        private final Executor                         executor;
+        private final Source                           source;
+        private final List<CompletableFuture<List<T>>> batches    = new ArrayList<>();
+        private int                                    depth      = 0;
+        private boolean                                string     = false;
+        private boolean                                escaped    = false;
+        private boolean                                value      = false; // a non-whitespace byte was seen in the current element
+        private boolean                                closed     = false;
+        private long                                   start      = -1;    // the position of the current batch
+        private int[]                                  separators = new int[64];
+        private int                                    count      = 0;     // the number of elements in the current batch
+        private int                                    total      = 0;
+
+        Splitter(final Gson gson, final Type type, final Executor executor, final Source source) {
+            gson.getAdapter(TypeToken.get(type)); // fail fast, before the input is scanned
+
+            this.gson     = gson;
+            this.type     = type;
+            this.executor = executor;
+            this.source   = source;
+        }
+
+        void scan(final ByteBuffer window, final long offset) {
+            for (int i = window.position(); i < window.limit(); i++) {
+                final byte b = window.get(i);
+
+                if (string) {
+                    if (escaped)
+                        escaped = false;
+                    else if (b == '\\')
+                        escaped = true;
+                    else if (b == '"')
+                        string = false;
+                    continue;
+                }
+
+                if (isWhitespace(b))
+                    continue;
+
+                final long position = offset + i;
+
+                if (depth == 0) {
+                    if (closed)
+                        throw new JsonSyntaxException("Unexpected data after the end of the array at byte offset " + position);
+                    if (b != '[')
+                        throw new JsonSyntaxException("Expected a JSON array at byte offset " + position);
+                    depth = 1;
+                    start = position + 1;
+                    continue;
+                }
+
+                if (depth == 1 && (b == ',' || b == ']' || b == '}')) {
+                    if (b == '}')
+                        throw new JsonSyntaxException("Unexpected '}' at byte offset " + position);
+                    if (b == ']' && !value && total == 0) { // an empty array
+                        depth  = 0;
+                        closed = true;
+                        continue;
+                    }
+                    if (!value)
+                        throw new JsonSyntaxException("Missing array element at byte offset " + position);
+                    separate(position);
+                    if (b == ']') {
+                        depth  = 0;
+                        closed = true;
+                        submit();
+                    }
+                    continue;
+                }
+
+                value = true;
+
+                if (b == '"')
+                    string = true;
+                else if (b == '[' || b == '{')
+                    depth++;
+                else if (b == ']' || b == '}')
+                    depth--;
+            }
+        }
+
+        private void separate(final long position) {
+            if (position - start > Integer.MAX_VALUE)
+                throw new JsonSyntaxException("Array element at byte offset " + start + " is too large");
+
+            if (count == separators.length)
+                separators = Arrays.copyOf(separators, count * 2);
+
+            separators[count++] = (int) (position - start);
+            value               = false;
+            total++;
+
+            if (position - start >= BATCH_SIZE) {
+                submit();
+                start = position + 1;
+            }
+        }
+
+        private void submit() {
+            if (count == 0)
+                return;
+
+            final long  position   = start;
+            final int[] boundaries = Arrays.copyOf(separators, count);
+
+            batches.add(CompletableFuture.supplyAsync(() -> bind(position, boundaries), executor));
+            count = 0;
+        }
+
+        List<T> finish() {
+            if (!closed)
+                throw new JsonSyntaxException(depth == 0 ? "Expected a JSON array" : "Unterminated JSON array");
+
+            final List<T> elements = new ArrayList<>(total);
+            try {
+                for (final CompletableFuture<List<T>> batch : batches)
+                    elements.addAll(batch.join());
+            } catch (final CompletionException e) {
+                Throwables.throwIfUnchecked(e.getCause());
+                throw e;
+            }
+            return elements;
+        }
+
+        private List<T> bind(final long position, final int[] boundaries) {
+            final ByteBuffer batch;
+            try {
+                batch = source.map(position, boundaries[boundaries.length - 1]);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            final List<T> elements = new ArrayList<>(boundaries.length);
+
+            for (int i = 0, from = 0; i < boundaries.length; from = boundaries[i++] + 1) {
+                int start = from;
+                int end   = boundaries[i];
+
+                while (isWhitespace(batch.get(start)))
+                    start++;
+                while (isWhitespace(batch.get(end - 1)))
+                    end--;
+
+                try {
+                    elements.add(gson.fromJson(new Utf8Reader(slice(batch, start, end)), type));
+                } catch (final JsonSyntaxException e) {
+                    throw new JsonSyntaxException("Malformed array element at byte offset " + (position + start), e);
+                }
+            }
+
+            return elements;
+        }
+
+    }
+
+    private static ByteBuffer slice(final ByteBuffer buffer, final int start, final int end) {
+        final ByteBuffer duplicate = buffer.duplicate();
+        duplicate.limit(end).position(start);
+        return duplicate.slice();
+    }
+
+    private static boolean isWhitespace(final byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+
+}
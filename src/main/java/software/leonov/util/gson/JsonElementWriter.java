@@ -0,0 +1,105 @@
+package software.leonov.util.gson;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map.Entry;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Writes a parse tree of {@link JsonElement}s to a {@link JsonWriter} by walking the tree directly.
+ * <p>
+ * Unlike copying from a {@code JsonTreeReader}, there is no intermediate token stream: primitives are written as they
+ * are, so numbers are neither reparsed nor converted to {@code BigDecimal}. Nesting is tracked on an explicit stack
+ * rather than by recursion, so arbitrarily deep trees cannot overflow the call stack.
+ *
+ * @author Zhenya Leonov
+ */
+final class JsonElementWriter {
+
+    private JsonElementWriter() {
+    }
+
+    static <W extends JsonWriter> W write(final JsonElement element, final W out) throws IOException {
+        final Deque<Frame> stack = new ArrayDeque<>();
+
+        for (JsonElement next = element; next != null; next = next(stack, out)) {
+            if (next.isJsonArray()) {
+                out.beginArray();
+                stack.push(new Frame(false, next.getAsJsonArray().iterator()));
+            } else if (next.isJsonObject()) {
+                out.beginObject();
+                stack.push(new Frame(true, next.getAsJsonObject().entrySet().iterator()));
+            } else if (next.isJsonPrimitive())
+                write(next.getAsJsonPrimitive(), out);
+            else
+                out.nullValue();
+        }
+
+        return out;
+    }
+
+    /*
+     * Returns the next element to write, writing the name of object members and closing every array and object which
+     * has been exhausted along the way, or null if the tree has been written.
+     */
+    private static JsonElement next(final Deque<Frame> stack, final JsonWriter out) throws IOException {
+        while (!stack.isEmpty()) {
+            final Frame frame = stack.peek();
+
+            if (frame.iterator.hasNext()) {
+                final Object next = frame.iterator.next();
+
+                if (!frame.object)
+                    return orNull((JsonElement) next);
+
+                @SuppressWarnings("unchecked")
+                final Entry<String, JsonElement> member = (Entry<String, JsonElement>) next;
+                out.name(member.getKey());
+                return orNull(member.getValue());
+            }
+
+            stack.pop();
+
+            if (frame.object)
+                out.endObject();
+            else
+                out.endArray();
+        }
+        return null;
+    }
+
+    private static void write(final JsonPrimitive primitive, final JsonWriter out) throws IOException {
+        if (primitive.isNumber())
+            out.value(primitive.getAsNumber());
+        else if (primitive.isBoolean())
+            out.value(primitive.getAsBoolean());
+        else
+            out.value(primitive.getAsString());
+    }
+
+    /*
+     * A JsonArray or JsonObject should not contain Java nulls, but if one does it is written as a JSON null.
+     */
+    private static JsonElement orNull(final JsonElement element) {
+        return element == null ? JsonNull.INSTANCE : element;
+    }
+
+    private static final class Frame {
+
+        private final boolean     object;
+        private final Iterator<?> iterator;
+
+        Frame(final boolean object, final Iterator<?> iterator) {
+            this.object   = object;
+            this.iterator = iterator;
+        }
+
+    }
+
+}
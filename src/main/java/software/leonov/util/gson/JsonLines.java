@@ -0,0 +1,233 @@
+package software.leonov.util.gson;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * Reads newline-delimited JSON (<a href="http://ndjson.org">NDJSON</a>, also known as
+ * <a href="https://jsonlines.org">JSON Lines</a>) and <a href="https://tools.ietf.org/html/rfc7464">RFC 7464</a> JSON
+ * text sequences, decoding the records in parallel.
+ * <p>
+ * Records are split at the byte level: the input is cut into batches of about {@link #BATCH_SIZE} bytes at record
+ * boundaries, and each batch is split into records and decoded by a task submitted to the executor. At most
+ * {@link #MAX_IN_FLIGHT} batches are decoded at a time, so memory use is bounded regardless of the size of the input.
+ * Decoded records are passed to the consumer on the calling thread.
+ *
+ * @author Zhenya Leonov
+ */
+final class JsonLines {
+
+    private static final byte LF = '\n';
+    private static final byte RS = 0x1E; // RFC 7464 record separator
+
+    static final int BATCH_SIZE    = 1 << 20;
+    static final int MAX_IN_FLIGHT = Math.max(2, 2 * Runtime.getRuntime().availableProcessors());
+
+    private JsonLines() {
+    }
+
+    static <T> void read(final Gson gson, final ByteBuffer buffer, final Type type, final Executor executor, final boolean ordered, final Consumer<? super T> consumer) {
+        final Decoder<T> decoder = new Decoder<>(gson, type, executor, ordered, consumer);
+
+        final ByteBuffer input = buffer.slice();
+
+        decoder.detect(input);
+        decoder.submit(input, 0);
+        decoder.finish();
+    }
+
+    static <T> void read(final Gson gson, final Path path, final long windowSize, final Type type, final Executor executor, final boolean ordered, final Consumer<? super T> consumer)
+            throws IOException {
+        checkArgument(windowSize > 0 && windowSize <= Integer.MAX_VALUE, "windowSize must be between 1 and Integer.MAX_VALUE");
+
+        final Decoder<T> decoder = new Decoder<>(gson, type, executor, ordered, consumer);
+
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+
+            for (long start = 0; start < size;) {
+                final ByteBuffer window = channel.map(MapMode.READ_ONLY, start, Math.min(windowSize, size - start));
+
+                if (start == 0)
+                    decoder.detect(window);
+
+                if (start + window.limit() < size) { // cut before the last record, which may continue in the next window
+                    final int end = decoder.lastDelimiter(window);
+                    if (end <= 0)
+                        throw new JsonSyntaxException("JSON record at byte offset " + start + " is longer than " + windowSize + " bytes");
+                    window.limit(end);
+                }
+
+                decoder.submit(window, start);
+                start += window.limit();
+            }
+
+            decoder.finish();
+        }
+    }
+
+    /*
+     * Holds the state of a single read. Records are delimited by line feeds unless the first non-whitespace byte of the
+     * input is an RFC 7464 record separator, in which case they are delimited by record separators and may span lines.
+     */
+    private static final class Decoder<T> {
+
+        private final Gson                                      gson;
+        private final Type                                      type;
+        private final Executor                                  executor;
+        private final boolean                                   ordered;
+        private final Consumer<? super T>                       consumer;
+        private final Deque<CompletableFuture<List<T>>>         pending   = new ArrayDeque<>();
+        private final BlockingQueue<CompletableFuture<List<T>>> completed = new LinkedBlockingQueue<>();
+        private int                                             inFlight  = 0;
+        private byte                                            delimiter = LF;
+
+        Decoder(final Gson gson, final Type type, final Executor executor, final boolean ordered, final Consumer<? super T> consumer) {
+            gson.getAdapter(TypeToken.get(type)); // fail fast, before any records are decoded
+
+            this.gson     = gson;
+            this.type     = type;
+            this.executor = executor;
+            this.ordered  = ordered;
+            this.consumer = consumer;
+        }
+
+        void detect(final ByteBuffer input) {
+            for (int i = input.position(); i < input.limit(); i++) {
+                final byte b = input.get(i);
+                if (b == RS || !isWhitespace(b)) {
+                    delimiter = b == RS ? RS : LF;
+                    return;
+                }
+            }
+        }
+
+        int lastDelimiter(final ByteBuffer input) {
+            for (int i = input.limit() - 1; i >= input.position(); i--)
+                if (input.get(i) == delimiter)
+                    return i;
+            return -1;
+        }
+
+        /*
+         * Cuts the input into batches at delimiters and submits them for decoding, draining decoded batches whenever the
+         * maximum number of batches are in flight.
+         */
+        void submit(final ByteBuffer input, final long offset) {
+            final int limit = input.limit();
+
+            for (int start = input.position(); start < limit;) {
+                int end = Math.min(start + BATCH_SIZE, limit);
+
+                while (end < limit && input.get(end) != delimiter)
+                    end++;
+
+                final ByteBuffer batch       = slice(input, start, end);
+                final long       batchOffset = offset + start;
+
+                final CompletableFuture<List<T>> future = CompletableFuture.supplyAsync(() -> decode(batch, batchOffset), executor);
+
+                if (ordered)
+                    pending.add(future);
+                else
+                    future.whenComplete((records, e) -> completed.add(future));
+
+                if (++inFlight >= MAX_IN_FLIGHT)
+                    drain();
+
+                start = end;
+            }
+        }
+
+        void finish() {
+            while (inFlight > 0)
+                drain();
+        }
+
+        private void drain() {
+            final CompletableFuture<List<T>> future = ordered ? pending.removeFirst() : Uninterruptibles.takeUninterruptibly(completed);
+
+            inFlight--;
+
+            final List<T> records;
+            try {
+                records = future.join();
+            } catch (final CompletionException e) {
+                Throwables.throwIfUnchecked(e.getCause());
+                throw e;
+            }
+
+            for (final T record : records)
+                consumer.accept(record);
+        }
+
+        private List<T> decode(final ByteBuffer batch, final long offset) {
+            final List<T> records = new ArrayList<>();
+
+            final int limit = batch.limit();
+
+            int start = 0;
+            for (int i = 0; i <= limit; i++)
+                if (i == limit || batch.get(i) == delimiter) {
+                    decode(batch, start, i, offset, records);
+                    start = i + 1;
+                }
+
+            return records;
+        }
+
+        private void decode(final ByteBuffer batch, final int from, final int to, final long offset, final List<T> records) {
+            int start = from;
+            int end   = to;
+
+            while (start < end && isWhitespace(batch.get(start)))
+                start++;
+            while (end > start && isWhitespace(batch.get(end - 1)))
+                end--;
+
+            if (start == end) // blank line
+                return;
+
+            try {
+                records.add(gson.fromJson(new Utf8Reader(slice(batch, start, end)), type));
+            } catch (final JsonSyntaxException e) {
+                throw new JsonSyntaxException("Malformed JSON record at byte offset " + (offset + start), e);
+            }
+        }
+
+    }
+
+    private static ByteBuffer slice(final ByteBuffer buffer, final int start, final int end) {
+        final ByteBuffer duplicate = buffer.duplicate();
+        duplicate.limit(end).position(start);
+        return duplicate.slice();
+    }
+
+    private static boolean isWhitespace(final byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == LF || b == RS;
+    }
+
+}
@@ -0,0 +1,112 @@
+package software.leonov.util.gson;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Type;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Writes records as newline-delimited JSON (<a href="http://ndjson.org">NDJSON</a>, also known as
+ * <a href="https://jsonlines.org">JSON Lines</a>) or as <a href="https://tools.ietf.org/html/rfc7464">RFC 7464</a> JSON
+ * text sequences.
+ * <p>
+ * Each record is serialized by the specified {@code Gson} instance on a single line, even if the {@code Gson} instance
+ * is configured to {@link com.google.gson.GsonBuilder#setPrettyPrinting() pretty print}, and followed by a line feed.
+ * In the RFC 7464 format each record is also preceded by an ASCII record separator ({@code 0x1E}).
+ * <p>
+ * Output is buffered; the underlying writer is written to when the buffer fills up, and when this writer is
+ * {@link #flush() flushed} or {@link #close() closed}.
+ * <p>
+ * Instances of this class are not thread-safe.
+ *
+ * @author Zhenya Leonov
+ */
+public final class JsonLinesWriter implements Closeable, Flushable {
+
+    private static final char RS = '\u001E';
+
+    private final Gson       gson;
+    private final Writer     out;
+    private final JsonWriter writer;
+    private final boolean    recordSeparators;
+
+    /**
+     * Constructs a new {@code JsonLinesWriter} which writes newline-delimited JSON records to the specified writer.
+     *
+     * @param gson   the {@code Gson} instance used to serialize records
+     * @param writer the underlying writer
+     */
+    public JsonLinesWriter(final Gson gson, final Writer writer) {
+        this(gson, writer, false);
+    }
+
+    /**
+     * Constructs a new {@code JsonLinesWriter} which writes newline-delimited JSON records, each preceded by an ASCII
+     * record separator if {@code recordSeparators} is {@code true}, to the specified writer.
+     *
+     * @param gson             the {@code Gson} instance used to serialize records
+     * @param writer           the underlying writer
+     * @param recordSeparators whether to write <a href="https://tools.ietf.org/html/rfc7464">RFC 7464</a> JSON text
+     *                         sequences
+     */
+    public JsonLinesWriter(final Gson gson, final Writer writer, final boolean recordSeparators) {
+        checkNotNull(gson, "gson == null");
+        checkNotNull(writer, "writer == null");
+
+        this.gson             = gson;
+        this.out              = writer instanceof BufferedWriter ? writer : new BufferedWriter(writer);
+        this.writer           = new JsonWriter(out); // never indented, regardless of the Gson configuration
+        this.recordSeparators = recordSeparators;
+    }
+
+    /**
+     * Writes the specified record, using the {@code TypeAdapter} for its runtime class.
+     *
+     * @param record the record to write (may be {@code null})
+     * @return this {@code JsonLinesWriter}
+     * @throws JsonIOException if an I/O error occurs
+     */
+    public JsonLinesWriter write(final Object record) {
+        return write(record, record == null ? Object.class : record.getClass());
+    }
+
+    /**
+     * Writes the specified record, using the {@code TypeAdapter} for the specified type.
+     *
+     * @param record the record to write (may be {@code null})
+     * @param type   the {@link Type} of the record
+     * @return this {@code JsonLinesWriter}
+     * @throws JsonIOException if an I/O error occurs
+     */
+    public JsonLinesWriter write(final Object record, final Type type) {
+        checkNotNull(type, "type == null");
+        try {
+            if (recordSeparators)
+                out.write(RS);
+            gson.toJson(record, type, writer);
+            out.write('\n');
+        } catch (final IOException e) {
+            throw new JsonIOException(e);
+        }
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+}
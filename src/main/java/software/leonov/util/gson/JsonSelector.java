@@ -0,0 +1,352 @@
+package software.leonov.util.gson;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map.Entry;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.MultimapBuilder;
+import com.google.common.collect.Multimaps;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * A compiled set of path expressions which selects values from a JSON document as it is streamed from a
+ * {@link JsonReader}, without parsing the parts of the document which no expression can match.
+ * <p>
+ * Two syntaxes are supported:
+ * <ul>
+ * <li><a href="https://tools.ietf.org/html/rfc6901">JSON Pointer</a>: {@code ""} selects the whole document, and
+ * {@code "/store/book/0/title"} selects the {@code title} of the first {@code book}. A reference token which is an array
+ * index also matches an object member of the same name.</li>
+ * <li>A subset of <a href="https://goessner.net/articles/JsonPath/">JSONPath</a>: {@code $}, {@code .name},
+ * {@code ['name']}, {@code ["name"]}, {@code [index]}, and the wildcards {@code .*} and {@code [*]}, as in
+ * {@code "$.store.book[*].title"}. Recursive descent, negative indexes, slices, unions, and filters are not
+ * supported.</li>
+ * </ul>
+ * Each subtree which no expression can match is skipped with {@link JsonReader#skipValue()}. Only matched values are
+ * materialized, and they are bound directly from the stream unless another expression selects a value nested within
+ * them.
+ * <p>
+ * Instances of this class are immutable and thread-safe.
+ *
+ * @author Zhenya Leonov
+ */
+public final class JsonSelector {
+
+    private final ImmutableList<Expression> expressions;
+
+    private JsonSelector(final ImmutableList<Expression> expressions) {
+        this.expressions = expressions;
+    }
+
+    /**
+     * Compiles the specified JSON Pointer or JSONPath expressions.
+     *
+     * @param paths the JSON Pointer or JSONPath expressions
+     * @return a {@code JsonSelector} which selects the values matched by the specified expressions
+     * @throws IllegalArgumentException if an expression is malformed or uses unsupported syntax
+     */
+    public static JsonSelector compile(final String... paths) {
+        checkNotNull(paths, "paths == null");
+        return compile(Arrays.asList(paths));
+    }
+
+    /**
+     * Compiles the specified JSON Pointer or JSONPath expressions.
+     *
+     * @param paths the JSON Pointer or JSONPath expressions
+     * @return a {@code JsonSelector} which selects the values matched by the specified expressions
+     * @throws IllegalArgumentException if an expression is malformed or uses unsupported syntax
+     */
+    public static JsonSelector compile(final Iterable<String> paths) {
+        checkNotNull(paths, "paths == null");
+
+        final ImmutableList.Builder<Expression> builder = ImmutableList.builder();
+        for (final String path : ImmutableSet.copyOf(paths)) // duplicates would select every value twice
+            builder.add(path.startsWith("$") ? Expression.jsonPath(path) : Expression.jsonPointer(path));
+        return new JsonSelector(builder.build());
+    }
+
+    /**
+     * Consumes the next value from the specified {@code JsonReader} and returns the values matched by each expression as
+     * {@code JsonElement}s.
+     * <p>
+     * Equivalent to {@link #select(Gson, JsonReader, Type) select(GsonHelper.getGson(), in, JsonElement.class)}.
+     *
+     * @param in the {@code JsonReader} to read from
+     * @return a {@code ListMultimap} which maps each expression to the values it matched, in document order
+     * @throws IOException if an I/O error occurs
+     */
+    public ListMultimap<String, JsonElement> select(final JsonReader in) throws IOException {
+        return select(GsonHelper.getGson(), in, JsonElement.class);
+    }
+
+    /**
+     * Consumes the next value from the specified {@code JsonReader} and returns the values matched by each expression,
+     * deserialized using the specified {@code Gson} instance.
+     * <p>
+     * The returned {@code ListMultimap} is unmodifiable. Its keys are the expressions which matched at least one value,
+     * in the order in which they first matched, and its values are the matched values in document order. A JSON
+     * {@code null} is mapped to the value the adapter returns for it, usually {@code null}.
+     *
+     * @param <T>  the type of the selected values
+     * @param gson the {@code Gson} instance used to deserialize the selected values
+     * @param in   the {@code JsonReader} to read from
+     * @param type the {@link Type} of the selected values
+     * @return a {@code ListMultimap} which maps each expression to the values it matched, in document order
+     * @throws IOException if an I/O error occurs
+     */
+    public <T> ListMultimap<String, T> select(final Gson gson, final JsonReader in, final Type type) throws IOException {
+        checkNotNull(gson, "gson == null");
+        checkNotNull(in, "in == null");
+        checkNotNull(type, "type == null");
+
+        @SuppressWarnings("unchecked")
+        final TypeAdapter<T> adapter = (TypeAdapter<T>) gson.getAdapter(TypeToken.get(type));
+
+        final ListMultimap<String, T> results = MultimapBuilder.linkedHashKeys().arrayListValues().build();
+
+        new Walk<>(gson.getAdapter(JsonElement.class), adapter, results).select(in, expressions, 0);
+
+        return Multimaps.unmodifiableListMultimap(results);
+    }
+
+    /*
+     * Holds the state of a single selection. At a value nested depth levels deep, the active expressions are those whose
+     * first depth segments match the path to the value; each segment matches exactly one level of nesting.
+     */
+    private static final class Walk<T> {
+
+        private final TypeAdapter<JsonElement> elements;
+        private final TypeAdapter<T>           adapter;
+        private final ListMultimap<String, T>  results;
+
+        Walk(final TypeAdapter<JsonElement> elements, final TypeAdapter<T> adapter, final ListMultimap<String, T> results) {
+            this.elements = elements;
+            this.adapter  = adapter;
+            this.results  = results;
+        }
+
+        void select(final JsonReader in, final List<Expression> active, final int depth) throws IOException {
+            if (active.isEmpty()) {
+                in.skipValue();
+                return;
+            }
+
+            boolean matched = false;
+            boolean nested  = false;
+            for (final Expression expression : active)
+                if (expression.segments.size() == depth)
+                    matched = true;
+                else
+                    nested = true;
+
+            if (matched && !nested) { // bind straight from the stream
+                final T value = adapter.read(in);
+                for (final Expression expression : active)
+                    results.put(expression.path, value);
+            } else if (matched) // another expression selects a value within this one
+                selectTree(elements.read(in), active, depth);
+            else if (in.peek() == JsonToken.BEGIN_OBJECT) {
+                in.beginObject();
+                while (in.hasNext()) {
+                    final String name = in.nextName();
+                    select(in, filter(active, depth, name, -1), depth + 1);
+                }
+                in.endObject();
+            } else if (in.peek() == JsonToken.BEGIN_ARRAY) {
+                in.beginArray();
+                for (int index = 0; in.hasNext(); index++)
+                    select(in, filter(active, depth, null, index), depth + 1);
+                in.endArray();
+            } else
+                in.skipValue();
+        }
+
+        private void selectTree(final JsonElement element, final List<Expression> active, final int depth) {
+            if (active.isEmpty())
+                return;
+
+            for (final Expression expression : active)
+                if (expression.segments.size() == depth)
+                    results.put(expression.path, adapter.fromJsonTree(element));
+
+            if (element.isJsonObject())
+                for (final Entry<String, JsonElement> member : element.getAsJsonObject().entrySet())
+                    selectTree(member.getValue(), filter(active, depth, member.getKey(), -1), depth + 1);
+            else if (element.isJsonArray()) {
+                final JsonArray array = element.getAsJsonArray();
+                for (int index = 0; index < array.size(); index++)
+                    selectTree(array.get(index), filter(active, depth, null, index), depth + 1);
+            }
+        }
+
+        /*
+         * Returns the active expressions whose segment at the specified depth matches the member name, or the array
+         * index if the name is null.
+         */
+        private static List<Expression> filter(final List<Expression> active, final int depth, final String name, final int index) {
+            List<Expression> next = Collections.emptyList();
+
+            for (final Expression expression : active) {
+                if (expression.segments.size() <= depth)
+                    continue;
+
+                final Segment segment = expression.segments.get(depth);
+
+                if (name == null ? segment.matches(index) : segment.matches(name)) {
+                    if (next.isEmpty())
+                        next = new ArrayList<>(active.size());
+                    next.add(expression);
+                }
+            }
+            return next;
+        }
+
+    }
+
+    /*
+     * A compiled expression: a sequence of segments, each of which selects members or elements one level deeper.
+     */
+    private static final class Expression {
+
+        private final String                 path;
+        private final ImmutableList<Segment> segments;
+
+        private Expression(final String path, final ImmutableList<Segment> segments) {
+            this.path     = path;
+            this.segments = segments;
+        }
+
+        static Expression jsonPointer(final String path) {
+            checkArgument(path.isEmpty() || path.startsWith("/"), "not a JSON Pointer or JSONPath expression: %s", path);
+
+            final ImmutableList.Builder<Segment> segments = ImmutableList.builder();
+
+            if (!path.isEmpty())
+                for (final String token : path.substring(1).split("/", -1)) {
+                    checkArgument(!token.matches(".*~([^01]|$).*"), "invalid escape sequence in JSON Pointer: %s", path);
+
+                    final String name = token.replace("~1", "/").replace("~0", "~");
+                    segments.add(new Segment(name, name.matches("0|[1-9][0-9]{0,8}") ? Integer.parseInt(name) : -1));
+                }
+
+            return new Expression(path, segments.build());
+        }
+
+        static Expression jsonPath(final String path) {
+            final ImmutableList.Builder<Segment> segments = ImmutableList.builder();
+
+            int i = 1;
+            while (i < path.length()) {
+                final char c = path.charAt(i);
+
+                if (c == '.') {
+                    checkArgument(i + 1 < path.length() && path.charAt(i + 1) != '.', "unsupported JSONPath syntax at index %s: %s", i, path);
+
+                    int end = i + 1;
+                    while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[')
+                        end++;
+
+                    final String name = path.substring(i + 1, end);
+                    segments.add(name.equals("*") ? Segment.WILDCARD : new Segment(name, -1));
+                    i = end;
+                } else if (c == '[') {
+                    final int close = bracket(path, i);
+                    final String selector = path.substring(i + 1, close);
+
+                    if (selector.equals("*"))
+                        segments.add(Segment.WILDCARD);
+                    else if (selector.matches("0|[1-9][0-9]{0,8}"))
+                        segments.add(new Segment(null, Integer.parseInt(selector)));
+                    else if (selector.length() >= 2 && (selector.charAt(0) == '\'' || selector.charAt(0) == '"') && selector.charAt(selector.length() - 1) == selector.charAt(0))
+                        segments.add(new Segment(unescape(selector.substring(1, selector.length() - 1), path), -1));
+                    else
+                        throw new IllegalArgumentException(String.format("unsupported JSONPath syntax at index %s: %s", i, path));
+
+                    i = close + 1;
+                } else
+                    throw new IllegalArgumentException(String.format("unsupported JSONPath syntax at index %s: %s", i, path));
+            }
+
+            return new Expression(path, segments.build());
+        }
+
+        /*
+         * Returns the index of the bracket which closes the bracket at the specified index, skipping over quoted names.
+         */
+        private static int bracket(final String path, final int open) {
+            char quote = 0;
+            for (int i = open + 1; i < path.length(); i++) {
+                final char c = path.charAt(i);
+
+                if (quote != 0) {
+                    if (c == '\\')
+                        i++;
+                    else if (c == quote)
+                        quote = 0;
+                } else if (c == '\'' || c == '"')
+                    quote = c;
+                else if (c == ']')
+                    return i;
+            }
+            throw new IllegalArgumentException(String.format("unclosed bracket at index %s: %s", open, path));
+        }
+
+        private static String unescape(final String name, final String path) {
+            final StringBuilder sb = new StringBuilder(name.length());
+            for (int i = 0; i < name.length(); i++) {
+                char c = name.charAt(i);
+                if (c == '\\') {
+                    checkArgument(++i < name.length(), "invalid escape sequence in JSONPath: %s", path);
+                    c = name.charAt(i);
+                }
+                sb.append(c);
+            }
+            return sb.toString();
+        }
+
+    }
+
+    /*
+     * Matches an object member by name, an array element by index, or, if it is the wildcard, any member or element. A
+     * JSON Pointer reference token which is a valid array index has both a name and an index.
+     */
+    private static final class Segment {
+
+        static final Segment WILDCARD = new Segment(null, -1);
+
+        private final String name;  // or null
+        private final int    index; // or -1
+
+        Segment(final String name, final int index) {
+            this.name  = name;
+            this.index = index;
+        }
+
+        boolean matches(final String member) {
+            return this == WILDCARD || member.equals(name);
+        }
+
+        boolean matches(final int element) {
+            return this == WILDCARD || element == index;
+        }
+
+    }
+
+}
@@ -0,0 +1,540 @@
+package software.leonov.util.gson;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableList;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+/**
+ * A read-only view of a JSON value in a source text which parses its nested objects and arrays only when they are first
+ * accessed.
+ * <p>
+ * {@code JsonElement} cannot be extended outside of Gson, so this class mirrors the read-only part of its API instead:
+ * {@link #isJsonObject()}, {@link #get(String)}, {@link #keySet()}, {@link #get(int)}, {@link #size()},
+ * {@link #getAsString()}, {@link #getAsInt()}, and so on. The standard tree can be materialized for any subtree with
+ * {@link #toJsonElement()}, and a subtree can be bound to an object with {@link #getAs(Type)}.
+ * <p>
+ * A {@code LazyJsonElement} keeps a reference to the source text and the offsets of its value within it. When a member
+ * or element of an object or array is first accessed, the object or array is scanned once to record the offsets of each
+ * of its children, without parsing them. Primitives are parsed when their value is first requested. Only the structure
+ * of the levels which have been expanded is checked, so malformed JSON text in a subtree which is never accessed is
+ * never detected; a {@link JsonSyntaxException} is thrown when it is.
+ * <p>
+ * Instances of this class are thread-safe. Under contention an object or array may be scanned more than once.
+ *
+ * @author Zhenya Leonov
+ */
+public final class LazyJsonElement {
+
+    private final String source;
+    private final int    start;
+    private final int    end;
+
+    private volatile Map<String, LazyJsonElement> members;   // if this is an object, once scanned
+    private volatile List<LazyJsonElement>        elements;  // if this is an array, once scanned
+    private volatile JsonElement                  value;     // if this is a primitive or null, once parsed
+
+    private LazyJsonElement(final String source, final int start, final int end) {
+        this.source = source;
+        this.start  = start;
+        this.end    = end;
+    }
+
+    /**
+     * Returns a {@code LazyJsonElement} for the single JSON value in the specified text. Only the extent of the top-level
+     * value is determined; nothing within it is parsed. Empty text is treated as {@code null}, as by
+     * {@link GsonHelper#parseJson(String)}.
+     *
+     * @param text the JSON text
+     * @return a {@code LazyJsonElement} for the single JSON value in the specified text
+     * @throws JsonSyntaxException if the text does not consist of a single JSON value
+     */
+    static LazyJsonElement parse(final String text) {
+        checkNotNull(text, "text == null");
+
+        final int from = skipWhitespace(text, 0);
+
+        if (from == text.length())
+            return new LazyJsonElement("null", 0, 4);
+
+        final int to = valueEnd(text, from);
+
+        if (skipWhitespace(text, to) != text.length())
+            throw new JsonSyntaxException("Did not consume the entire document at offset " + to);
+
+        return new LazyJsonElement(text, from, to);
+    }
+
+    /**
+     * Returns {@code true} if this element is a JSON object.
+     *
+     * @return {@code true} if this element is a JSON object
+     */
+    public boolean isJsonObject() {
+        return source.charAt(start) == '{';
+    }
+
+    /**
+     * Returns {@code true} if this element is a JSON array.
+     *
+     * @return {@code true} if this element is a JSON array
+     */
+    public boolean isJsonArray() {
+        return source.charAt(start) == '[';
+    }
+
+    /**
+     * Returns {@code true} if this element is a JSON {@code null}.
+     *
+     * @return {@code true} if this element is a JSON {@code null}
+     */
+    public boolean isJsonNull() {
+        return !isJsonObject() && !isJsonArray() && parsePrimitive().isJsonNull();
+    }
+
+    /**
+     * Returns {@code true} if this element is a string, number, or boolean.
+     *
+     * @return {@code true} if this element is a string, number, or boolean
+     */
+    public boolean isJsonPrimitive() {
+        return !isJsonObject() && !isJsonArray() && parsePrimitive().isJsonPrimitive();
+    }
+
+    /**
+     * Returns the member of this object with the specified name, or {@code null} if there is no such member. If the
+     * object has several members with the same name the last one is returned, as by {@link JsonObject}.
+     *
+     * @param memberName the name of the member
+     * @return the member of this object with the specified name, or {@code null} if there is no such member
+     * @throws IllegalStateException if this element is not a JSON object
+     * @throws JsonSyntaxException   if the object is malformed
+     */
+    public LazyJsonElement get(final String memberName) {
+        checkNotNull(memberName, "memberName == null");
+        return members().get(memberName);
+    }
+
+    /**
+     * Returns {@code true} if this object has a member with the specified name.
+     *
+     * @param memberName the name of the member
+     * @return {@code true} if this object has a member with the specified name
+     * @throws IllegalStateException if this element is not a JSON object
+     * @throws JsonSyntaxException   if the object is malformed
+     */
+    public boolean has(final String memberName) {
+        checkNotNull(memberName, "memberName == null");
+        return members().containsKey(memberName);
+    }
+
+    /**
+     * Returns the names of the members of this object in the order in which they appear.
+     *
+     * @return an unmodifiable view of the names of the members of this object
+     * @throws IllegalStateException if this element is not a JSON object
+     * @throws JsonSyntaxException   if the object is malformed
+     */
+    public Set<String> keySet() {
+        return members().keySet();
+    }
+
+    /**
+     * Returns the element of this array at the specified index.
+     *
+     * @param index the index of the element
+     * @return the element of this array at the specified index
+     * @throws IllegalStateException     if this element is not a JSON array
+     * @throws IndexOutOfBoundsException if {@code index} is negative or not less than the size of this array
+     * @throws JsonSyntaxException       if the array is malformed
+     */
+    public LazyJsonElement get(final int index) {
+        final List<LazyJsonElement> elements = elements();
+        checkElementIndex(index, elements.size());
+        return elements.get(index);
+    }
+
+    /**
+     * Returns the elements of this array.
+     *
+     * @return an immutable list of the elements of this array
+     * @throws IllegalStateException if this element is not a JSON array
+     * @throws JsonSyntaxException   if the array is malformed
+     */
+    public List<LazyJsonElement> asList() {
+        return elements();
+    }
+
+    /**
+     * Returns the number of members of this object, or the number of elements of this array.
+     *
+     * @return the number of members of this object, or the number of elements of this array
+     * @throws IllegalStateException if this element is neither a JSON object nor a JSON array
+     * @throws JsonSyntaxException   if the object or array is malformed
+     */
+    public int size() {
+        if (isJsonObject())
+            return members().size();
+        else if (isJsonArray())
+            return elements().size();
+        else
+            throw new IllegalStateException("Not a JSON Object or JSON Array");
+    }
+
+    /**
+     * Returns the value of this primitive as a {@code String}, as by {@link JsonPrimitive#getAsString()}.
+     *
+     * @return the value of this primitive as a {@code String}
+     * @throws IllegalStateException if this element is not a JSON primitive
+     * @throws JsonSyntaxException   if the primitive is malformed
+     */
+    public String getAsString() {
+        return primitive().getAsString();
+    }
+
+    /**
+     * Returns the value of this primitive as a {@code boolean}, as by {@link JsonPrimitive#getAsBoolean()}.
+     *
+     * @return the value of this primitive as a {@code boolean}
+     * @throws IllegalStateException if this element is not a JSON primitive
+     * @throws JsonSyntaxException   if the primitive is malformed
+     */
+    public boolean getAsBoolean() {
+        return primitive().getAsBoolean();
+    }
+
+    /**
+     * Returns the value of this primitive as a {@code Number}, as by {@link JsonPrimitive#getAsNumber()}.
+     *
+     * @return the value of this primitive as a {@code Number}
+     * @throws IllegalStateException if this element is not a JSON primitive
+     * @throws JsonSyntaxException   if the primitive is malformed
+     */
+    public Number getAsNumber() {
+        return primitive().getAsNumber();
+    }
+
+    /**
+     * Returns the value of this primitive as an {@code int}, as by {@link JsonPrimitive#getAsInt()}.
+     *
+     * @return the value of this primitive as an {@code int}
+     * @throws IllegalStateException if this element is not a JSON primitive
+     * @throws NumberFormatException if the value is not a valid {@code int}
+     * @throws JsonSyntaxException   if the primitive is malformed
+     */
+    public int getAsInt() {
+        return primitive().getAsInt();
+    }
+
+    /**
+     * Returns the value of this primitive as a {@code long}, as by {@link JsonPrimitive#getAsLong()}.
+     *
+     * @return the value of this primitive as a {@code long}
+     * @throws IllegalStateException if this element is not a JSON primitive
+     * @throws NumberFormatException if the value is not a valid {@code long}
+     * @throws JsonSyntaxException   if the primitive is malformed
+     */
+    public long getAsLong() {
+        return primitive().getAsLong();
+    }
+
+    /**
+     * Returns the value of this primitive as a {@code double}, as by {@link JsonPrimitive#getAsDouble()}.
+     *
+     * @return the value of this primitive as a {@code double}
+     * @throws IllegalStateException if this element is not a JSON primitive
+     * @throws NumberFormatException if the value is not a valid {@code double}
+     * @throws JsonSyntaxException   if the primitive is malformed
+     */
+    public double getAsDouble() {
+        return primitive().getAsDouble();
+    }
+
+    /**
+     * Returns the value of this primitive as a {@code BigDecimal}, as by {@link JsonPrimitive#getAsBigDecimal()}.
+     *
+     * @return the value of this primitive as a {@code BigDecimal}
+     * @throws IllegalStateException if this element is not a JSON primitive
+     * @throws NumberFormatException if the value is not a valid {@code BigDecimal}
+     * @throws JsonSyntaxException   if the primitive is malformed
+     */
+    public BigDecimal getAsBigDecimal() {
+        return primitive().getAsBigDecimal();
+    }
+
+    /**
+     * Returns the value of this primitive as a {@code BigInteger}, as by {@link JsonPrimitive#getAsBigInteger()}.
+     *
+     * @return the value of this primitive as a {@code BigInteger}
+     * @throws IllegalStateException if this element is not a JSON primitive
+     * @throws NumberFormatException if the value is not a valid {@code BigInteger}
+     * @throws JsonSyntaxException   if the primitive is malformed
+     */
+    public BigInteger getAsBigInteger() {
+        return primitive().getAsBigInteger();
+    }
+
+    /**
+     * Parses this element into a standard {@code JsonElement} tree. The tree is not retained; each call parses the
+     * source text again.
+     *
+     * @return a {@code JsonElement} tree equivalent to this element
+     * @throws JsonSyntaxException if this element is malformed
+     */
+    public JsonElement toJsonElement() {
+        return isJsonObject() || isJsonArray() ? parse(JsonElement.class, GsonHelper.getGson()) : parsePrimitive();
+    }
+
+    /**
+     * Deserializes this element into an object of the specified type using the {@link GsonHelper#getGson() default Gson
+     * instance}, reading directly from the source text.
+     *
+     * @param <T>  the type of the desired object
+     * @param type the {@link Type} of the desired object
+     * @return an object of the specified type
+     * @throws JsonSyntaxException if this element is not a valid representation of an object of the specified type
+     */
+    public <T> T getAs(final Type type) {
+        return getAs(GsonHelper.getGson(), type);
+    }
+
+    /**
+     * Deserializes this element into an object of the specified type using the given {@code Gson} instance, reading
+     * directly from the source text.
+     *
+     * @param <T>  the type of the desired object
+     * @param gson the {@code Gson} instance used to deserialize the object
+     * @param type the {@link Type} of the desired object
+     * @return an object of the specified type
+     * @throws JsonSyntaxException if this element is not a valid representation of an object of the specified type
+     */
+    public <T> T getAs(final Gson gson, final Type type) {
+        checkNotNull(gson, "gson == null");
+        checkNotNull(type, "type == null");
+        return parse(type, gson);
+    }
+
+    /**
+     * Returns the JSON text of this element exactly as it appears in the source text.
+     *
+     * @return the JSON text of this element exactly as it appears in the source text
+     */
+    @Override
+    public String toString() {
+        return source.substring(start, end);
+    }
+
+    private Map<String, LazyJsonElement> members() {
+        Map<String, LazyJsonElement> members = this.members;
+        if (members == null) {
+            if (!isJsonObject())
+                throw new IllegalStateException("Not a JSON Object");
+            this.members = members = Collections.unmodifiableMap(scanObject());
+        }
+        return members;
+    }
+
+    private List<LazyJsonElement> elements() {
+        List<LazyJsonElement> elements = this.elements;
+        if (elements == null) {
+            if (!isJsonArray())
+                throw new IllegalStateException("Not a JSON Array");
+            this.elements = elements = scanArray();
+        }
+        return elements;
+    }
+
+    private JsonPrimitive primitive() {
+        if (isJsonObject() || isJsonArray() || parsePrimitive().isJsonNull())
+            throw new IllegalStateException("Not a JSON Primitive");
+        return parsePrimitive().getAsJsonPrimitive();
+    }
+
+    private JsonElement parsePrimitive() {
+        JsonElement value = this.value;
+        if (value == null)
+            this.value = value = parse(JsonElement.class, GsonHelper.getGson());
+        return value;
+    }
+
+    private <T> T parse(final Type type, final Gson gson) {
+        @SuppressWarnings("unchecked")
+        final TypeAdapter<T> adapter = (TypeAdapter<T>) gson.getAdapter(TypeToken.get(type));
+
+        final JsonReader in = new JsonReader(new StringReader(toString())); // strict, unlike Gson.fromJson
+        try {
+            final T value = adapter.read(in);
+            if (in.peek() != JsonToken.END_DOCUMENT)
+                throw new JsonSyntaxException("Did not consume the entire value at offset " + start);
+            return value;
+        } catch (final EOFException | MalformedJsonException | NumberFormatException | IllegalStateException e) { // see Streams.parse(JsonReader)
+            throw new JsonSyntaxException(e);
+        } catch (final IOException e) {
+            throw new JsonIOException(e);
+        }
+    }
+
+    /*
+     * Records the offsets of the members of this object, which starts with an opening brace.
+     */
+    private Map<String, LazyJsonElement> scanObject() {
+        final Map<String, LazyJsonElement> members = new LinkedHashMap<>();
+
+        int i = skipWhitespace(source, start + 1);
+
+        if (i < end && source.charAt(i) == '}')
+            return members;
+
+        while (true) {
+            if (i >= end || source.charAt(i) != '"')
+                throw new JsonSyntaxException("Expected a member name at offset " + i);
+
+            final int nameEnd = stringEnd(source, i);
+            final String name = name(i, nameEnd);
+
+            i = skipWhitespace(source, nameEnd);
+            if (i >= end || source.charAt(i) != ':')
+                throw new JsonSyntaxException("Expected ':' at offset " + i);
+
+            final int from = skipWhitespace(source, i + 1);
+            final int to   = valueEnd(source, from);
+
+            members.put(name, new LazyJsonElement(source, from, to));
+
+            i = skipWhitespace(source, to);
+            if (i < end && source.charAt(i) == ',')
+                i = skipWhitespace(source, i + 1);
+            else if (i == end - 1 && source.charAt(i) == '}')
+                return members;
+            else
+                throw new JsonSyntaxException("Expected ',' or '}' at offset " + i);
+        }
+    }
+
+    /*
+     * Records the offsets of the elements of this array, which starts with an opening bracket.
+     */
+    private List<LazyJsonElement> scanArray() {
+        final ImmutableList.Builder<LazyJsonElement> elements = ImmutableList.builder();
+
+        int i = skipWhitespace(source, start + 1);
+
+        if (i < end && source.charAt(i) == ']')
+            return elements.build();
+
+        while (true) {
+            final int to = valueEnd(source, i);
+
+            elements.add(new LazyJsonElement(source, i, to));
+
+            i = skipWhitespace(source, to);
+            if (i < end && source.charAt(i) == ',')
+                i = skipWhitespace(source, i + 1);
+            else if (i == end - 1 && source.charAt(i) == ']')
+                return elements.build();
+            else
+                throw new JsonSyntaxException("Expected ',' or ']' at offset " + i);
+        }
+    }
+
+    private String name(final int from, final int to) {
+        final int backslash = source.indexOf('\\', from);
+        if (backslash < 0 || backslash >= to) // no escape sequences
+            return source.substring(from + 1, to - 1);
+        return unescape(from, to);
+    }
+
+    private String unescape(final int from, final int to) {
+        try {
+            return new JsonReader(new StringReader(source.substring(from, to))).nextString();
+        } catch (final IOException e) {
+            throw new JsonSyntaxException("Malformed member name at offset " + from, e);
+        }
+    }
+
+    /*
+     * Returns the offset after the value which starts at the specified offset. Strings, objects, and arrays are delimited
+     * by tracking nesting depth and string literals only; literals extend to the next structural character or
+     * whitespace.
+     */
+    private static int valueEnd(final String text, final int from) {
+        if (from >= text.length())
+            throw new JsonSyntaxException("Expected a value at offset " + from);
+
+        final char c = text.charAt(from);
+
+        if (c == '"')
+            return stringEnd(text, from);
+
+        if (c == '{' || c == '[') {
+            int depth = 0;
+            for (int i = from; i < text.length(); i++) {
+                final char d = text.charAt(i);
+                if (d == '"')
+                    i = stringEnd(text, i) - 1;
+                else if (d == '{' || d == '[')
+                    depth++;
+                else if ((d == '}' || d == ']') && --depth == 0)
+                    return i + 1;
+            }
+            throw new JsonSyntaxException("Unterminated " + (c == '{' ? "object" : "array") + " at offset " + from);
+        }
+
+        int i = from;
+        while (i < text.length() && ",:]}[{\" \t\r\n".indexOf(text.charAt(i)) < 0)
+            i++;
+
+        if (i == from)
+            throw new JsonSyntaxException("Expected a value at offset " + from);
+        return i;
+    }
+
+    /*
+     * Returns the offset after the closing quote of the string which starts at the specified offset.
+     */
+    private static int stringEnd(final String text, final int from) {
+        for (int i = from + 1; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if (c == '\\')
+                i++;
+            else if (c == '"')
+                return i + 1;
+        }
+        throw new JsonSyntaxException("Unterminated string at offset " + from);
+    }
+
+    private static int skipWhitespace(final String text, final int from) {
+        int i = from;
+        while (i < text.length()) {
+            final char c = text.charAt(i);
+            if (c != ' ' && c != '\t' && c != '\r' && c != '\n')
+                break;
+            i++;
+        }
+        return i;
+    }
+
+}
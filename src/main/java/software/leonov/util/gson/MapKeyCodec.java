@@ -0,0 +1,42 @@
+package software.leonov.util.gson;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+
+/**
+ * Converts map keys directly to and from JSON object member names.
+ * <p>
+ * When a {@code Multimap} or {@code Table} is written in JSON object form (see
+ * {@link GsonBuilder#enableComplexMapKeySerialization()}), its keys become member names. Decoding such a name with the
+ * key {@link TypeAdapter} requires wrapping it in a new JSON document first. A {@code MapKeyCodec} decodes the name
+ * directly, without any intermediate allocations.
+ * <p>
+ * Implementations must be consistent with the {@code TypeAdapter} the {@code Gson} instance uses for the same type:
+ * {@code decode(name)} must return the key the adapter would have read from the JSON string {@code name}, and
+ * {@code encode(key)} must return the string the adapter would have written. Built-in codecs are available from
+ * {@link MapKeyCodecs}.
+ *
+ * @param <K> the type of keys
+ * @author Zhenya Leonov
+ */
+public interface MapKeyCodec<K> {
+
+    /**
+     * Returns the key represented by the specified JSON object member name.
+     *
+     * @param name the JSON object member name
+     * @return the key represented by the specified JSON object member name
+     * @throws JsonSyntaxException if the name does not represent a valid key
+     */
+    K decode(String name);
+
+    /**
+     * Returns the JSON object member name representing the specified key.
+     *
+     * @param key the specified key
+     * @return the JSON object member name representing the specified key
+     */
+    String encode(K key);
+
+}
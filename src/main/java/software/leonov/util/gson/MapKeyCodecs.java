@@ -0,0 +1,318 @@
+package software.leonov.util.gson;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQuery;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+import com.fatboyindustrial.gsonjavatime.Converters;
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.internal.JsonReaderInternalAccess;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+
+/**
+ * Static factory methods for built-in {@link MapKeyCodec}s.
+ * <p>
+ * <strong>Built-in codecs:</strong>
+ * <ul>
+ * <li>{@code String}</li>
+ * <li>{@code Integer}, {@code Long}, {@code Short}, {@code Byte}, {@code Double}, and {@code Float}</li>
+ * <li>{@code enum} types (respecting {@link SerializedName} annotations)</li>
+ * <li>{@code UUID}</li>
+ * <li>{@code Instant}, {@code LocalDate}, {@code LocalDateTime}, {@code LocalTime}, {@code OffsetDateTime},
+ * {@code OffsetTime}, and {@code ZonedDateTime} in the ISO-8601 formats used by
+ * {@link Converters#registerAll(GsonBuilder) gson-javatime-serialisers}</li>
+ * </ul>
+ *
+ * @author Zhenya Leonov
+ */
+public final class MapKeyCodecs {
+
+    private static final Gson DEFAULTS = new Gson();
+
+    private static final Instant        PROBE_INSTANT = Instant.ofEpochSecond(1234567890L, 123456789);
+    private static final ZonedDateTime  PROBE_ZONED   = PROBE_INSTANT.atZone(ZoneId.of("Europe/Paris"));
+    private static final OffsetDateTime PROBE_OFFSET  = PROBE_INSTANT.atOffset(ZoneOffset.ofHoursMinutes(5, 30));
+
+    // Keys handled by Gson's own built-in adapters: the codec is used if the Gson instance has not overridden them
+    // @formatter:off
+    private static final Map<Class<?>, MapKeyCodec<?>> BUILT_IN = ImmutableMap.<Class<?>, MapKeyCodec<?>>builder()
+            .put(String.class,  codec(name -> name,                             Object::toString))
+            .put(Integer.class, codec(MapKeyCodecs::parseInt,                  Object::toString))
+            .put(Long.class,    codec(MapKeyCodecs::parseLong,                 Object::toString))
+            .put(Short.class,   codec(name -> (short) parseInt(name),          Object::toString))
+            .put(Byte.class,    codec(name -> (byte) parseInt(name),           Object::toString))
+            .put(Double.class,  codec(Double::parseDouble,                     Object::toString))
+            .put(Float.class,   codec(name -> (float) Double.parseDouble(name), Object::toString))
+            .put(UUID.class,    codec(UUID::fromString,                        UUID::toString))
+            .build();
+
+    // Keys handled by gson-javatime-serialisers: the codec is used if the registered adapter agrees with it on a probe value
+    private static final Map<Class<?>, MapKeyCodec<?>> TEMPORAL = ImmutableMap.<Class<?>, MapKeyCodec<?>>builder()
+            .put(Instant.class,        temporal(DateTimeFormatter.ISO_INSTANT,          Instant::from))
+            .put(LocalDate.class,      temporal(DateTimeFormatter.ISO_LOCAL_DATE,       LocalDate::from))
+            .put(LocalDateTime.class,  temporal(DateTimeFormatter.ISO_LOCAL_DATE_TIME,  LocalDateTime::from))
+            .put(LocalTime.class,      temporal(DateTimeFormatter.ISO_LOCAL_TIME,       LocalTime::from))
+            .put(OffsetDateTime.class, temporal(DateTimeFormatter.ISO_OFFSET_DATE_TIME, OffsetDateTime::from))
+            .put(OffsetTime.class,     temporal(DateTimeFormatter.ISO_OFFSET_TIME,      OffsetTime::from))
+            .put(ZonedDateTime.class,  temporal(DateTimeFormatter.ISO_DATE_TIME,        ZonedDateTime::from))
+            .build();
+
+    private static final Map<Class<?>, Object> PROBES = ImmutableMap.<Class<?>, Object>builder()
+            .put(Instant.class,        PROBE_INSTANT)
+            .put(LocalDate.class,      PROBE_OFFSET.toLocalDate())
+            .put(LocalDateTime.class,  PROBE_OFFSET.toLocalDateTime())
+            .put(LocalTime.class,      PROBE_OFFSET.toLocalTime())
+            .put(OffsetDateTime.class, PROBE_OFFSET)
+            .put(OffsetTime.class,     PROBE_OFFSET.toOffsetTime())
+            .put(ZonedDateTime.class,  PROBE_ZONED)
+            .build();
+    // @formatter:on
+
+    private static final Type COMPLEX_KEY_PROBE_TYPE = new TypeToken<Map<JsonArray, Integer>>() {
+    }.getType();
+
+    private MapKeyCodecs() {
+    }
+
+    /**
+     * Returns a built-in {@code MapKeyCodec} for the specified type or {@code null} if there is none.
+     * <p>
+     * A built-in codec is only returned if it is consistent with the {@code TypeAdapter} the specified {@code Gson}
+     * instance uses for the type. If the type adapter has been overridden (for example a custom {@code String} adapter
+     * or a different date-time format), {@code null} is returned and callers should fall back to the type adapter.
+     *
+     * @param gson the {@code Gson} instance which will serialize and deserialize the keys
+     * @param type the {@link Type} of keys
+     * @return a built-in {@code MapKeyCodec} for the specified type or {@code null} if there is none
+     */
+    public static MapKeyCodec<?> forType(final Gson gson, final Type type) {
+        checkNotNull(gson, "gson == null");
+        checkNotNull(type, "type == null");
+
+        if (!(type instanceof Class))
+            return null;
+
+        final Class<?> clazz = (Class<?>) type;
+
+        if (BUILT_IN.containsKey(clazz))
+            return isDefault(gson, clazz) ? BUILT_IN.get(clazz) : null;
+        else if (clazz.isEnum())
+            return isDefault(gson, clazz) ? forRawEnum(clazz) : null;
+        else if (TEMPORAL.containsKey(clazz))
+            return isConsistent(gson, clazz, TEMPORAL.get(clazz), PROBES.get(clazz)) ? TEMPORAL.get(clazz) : null;
+        else
+            return null;
+    }
+
+    /*
+     * The enum type is only known at runtime, so the type argument of forEnum cannot be expressed.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static MapKeyCodec<?> forRawEnum(final Class<?> clazz) {
+        return forEnum((Class<Enum>) clazz);
+    }
+
+    /**
+     * Returns a {@code MapKeyCodec} for the specified {@code enum} type which is consistent with Gson's default
+     * {@code enum} adapter: constants are encoded by {@link Enum#name() name} or {@link SerializedName#value()}, and
+     * decoded from either of these or any of the {@link SerializedName#alternate() alternate} names. Unknown names are
+     * decoded as {@code null}.
+     *
+     * @param <E>  the type of {@code enum}
+     * @param type the {@code enum} type
+     * @return a {@code MapKeyCodec} for the specified {@code enum} type
+     */
+    public static <E extends Enum<E>> MapKeyCodec<E> forEnum(final Class<E> type) {
+        checkNotNull(type, "type == null");
+
+        final Map<String, E> nameToConstant = new HashMap<>();
+        final Map<E, String> constantToName = new HashMap<>();
+
+        for (final E constant : type.getEnumConstants()) {
+            String name = constant.name();
+
+            final SerializedName annotation;
+            try {
+                annotation = type.getField(name).getAnnotation(SerializedName.class);
+            } catch (final NoSuchFieldException e) {
+                throw new AssertionError(e);
+            }
+
+            if (annotation != null) {
+                name = annotation.value();
+                for (final String alternate : annotation.alternate())
+                    nameToConstant.put(alternate, constant);
+            }
+
+            nameToConstant.put(name, constant);
+            constantToName.put(constant, name);
+        }
+
+        return codec(nameToConstant::get, constantToName::get);
+    }
+
+    /**
+     * Returns a {@code MapKeyCodec} which formats and parses keys with the specified {@code DateTimeFormatter}.
+     *
+     * @param <T>       the type of date-time keys
+     * @param formatter the specified {@code DateTimeFormatter}
+     * @param query     the query used to obtain keys from parsed values, e.g. {@code LocalDate::from}
+     * @return a {@code MapKeyCodec} which formats and parses keys with the specified {@code DateTimeFormatter}
+     */
+    public static <T extends TemporalAccessor> MapKeyCodec<T> forFormatter(final DateTimeFormatter formatter, final TemporalQuery<T> query) {
+        checkNotNull(formatter, "formatter == null");
+        checkNotNull(query, "query == null");
+        return temporal(formatter, query);
+    }
+
+    /**
+     * Consumes the next JSON object member name from the specified {@code JsonReader} and returns it as a key.
+     * <p>
+     * If the codec is {@code null} the name is promoted to a string value and read by the key adapter, exactly like Gson's
+     * own {@code Map} adapter does.
+     */
+    static <K> K nextKey(final JsonReader in, final MapKeyCodec<K> codec, final TypeAdapter<K> adapter) throws IOException {
+        if (codec != null)
+            return codec.decode(in.nextName());
+
+        JsonReaderInternalAccess.INSTANCE.promoteNameToValue(in);
+        return adapter.read(in);
+    }
+
+    /**
+     * Returns the key represented by the specified JSON object member name, which has already been consumed.
+     * <p>
+     * Unlike {@link #nextKey(JsonReader, MapKeyCodec, TypeAdapter)} this method wraps the name in a JSON document if the
+     * {@code codec} is {@code null}, so it should only be used when the name had to be inspected first, or when the
+     * decoded key is cached.
+     */
+    static <K> K decodeKey(final String name, final MapKeyCodec<K> codec, final TypeAdapter<K> adapter) {
+        return codec != null ? codec.decode(name) : adapter.fromJsonTree(new JsonPrimitive(name));
+    }
+
+    /**
+     * Returns whether the specified {@code Gson} instance has {@link GsonBuilder#enableComplexMapKeySerialization()
+     * complex map key serialization} enabled.
+     * <p>
+     * Gson does not expose this setting, so it is detected by serializing a map with a JSON array key.
+     */
+    static boolean isComplexMapKeySerialization(final Gson gson) {
+        final Map<JsonArray, Integer> probe = Collections.singletonMap(new JsonArray(), 0);
+        return gson.toJsonTree(probe, COMPLEX_KEY_PROBE_TYPE).isJsonArray();
+    }
+
+    /**
+     * Returns the JSON object member name for a key which serializes to the specified JSON primitive or {@code null}.
+     * This is the same conversion Gson's own {@code Map} adapter applies.
+     */
+    static String keyToString(final JsonElement key) {
+        if (key.isJsonNull())
+            return "null";
+
+        final JsonPrimitive primitive = key.getAsJsonPrimitive();
+
+        if (primitive.isNumber())
+            return String.valueOf(primitive.getAsNumber());
+        else if (primitive.isBoolean())
+            return Boolean.toString(primitive.getAsBoolean());
+        else
+            return primitive.getAsString();
+    }
+
+    private static boolean isDefault(final Gson gson, final Class<?> clazz) {
+        return gson.getAdapter(clazz).getClass() == DEFAULTS.getAdapter(clazz).getClass();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> boolean isConsistent(final Gson gson, final Class<T> clazz, final MapKeyCodec<?> codec, final Object probe) {
+        final MapKeyCodec<T> c = (MapKeyCodec<T>) codec;
+        final T              p = (T) probe;
+        try {
+            final TypeAdapter<T> adapter = gson.getAdapter(clazz);
+            final JsonElement    element = adapter.toJsonTree(p);
+            if (!element.isJsonPrimitive() || !element.getAsJsonPrimitive().isString())
+                return false;
+
+            final String name = element.getAsString();
+            return name.equals(c.encode(p)) && p.equals(c.decode(name)) && p.equals(adapter.fromJsonTree(element));
+        } catch (final RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static <T extends TemporalAccessor> MapKeyCodec<T> temporal(final DateTimeFormatter formatter, final TemporalQuery<T> query) {
+        return codec(name -> formatter.parse(name, query), formatter::format);
+    }
+
+    private static int parseInt(final String name) {
+        try {
+            return Integer.parseInt(name);
+        } catch (final NumberFormatException e) { // same fallback as JsonReader.nextInt()
+            final double value  = Double.parseDouble(name);
+            final int    result = (int) value;
+            if (result != value)
+                throw new NumberFormatException("Expected an int but was " + name);
+            return result;
+        }
+    }
+
+    private static long parseLong(final String name) {
+        try {
+            return Long.parseLong(name);
+        } catch (final NumberFormatException e) { // same fallback as JsonReader.nextLong()
+            final double value  = Double.parseDouble(name);
+            final long   result = (long) value;
+            if (result != value)
+                throw new NumberFormatException("Expected a long but was " + name);
+            return result;
+        }
+    }
+
+    private static <K> MapKeyCodec<K> codec(final Function<String, K> decoder, final Function<K, String> encoder) {
+        return new MapKeyCodec<K>() {
+
+            @Override
+            public K decode(final String name) {
+                checkNotNull(name, "name == null");
+                try {
+                    return decoder.apply(name);
+                } catch (final RuntimeException e) {
+                    throw new JsonSyntaxException(e);
+                }
+            }
+
+            @Override
+            public String encode(final K key) {
+                return key == null ? "null" : encoder.apply(key); // see MapTypeAdapterFactory.keyToString
+            }
+        };
+    }
+
+}
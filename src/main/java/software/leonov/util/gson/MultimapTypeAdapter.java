@@ -1,19 +1,26 @@
 package software.leonov.util.gson;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.Multimap;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
 import com.google.gson.TypeAdapter;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.internal.Streams;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
@@ -22,20 +29,21 @@ import com.google.gson.stream.JsonWriter;
  * A {@link TypeAdapter} which can serialize and deserialize of {@link Multimap} values to and from JSON.
  * <p>
  * This adapter supports complex key serialization if the provided {@code Gson} instance
- * {@link GsonBuilder#enableComplexMapKeySerialization() supports} it.
+ * {@link GsonBuilder#enableComplexMapKeySerialization() supports} it. When keys are written as JSON object member
+ * names they are converted directly by a {@link MapKeyCodec}, if one is available for their type.
  *
  * @param <K> the type of keys
  * @param <V> the type of mapped values
  */
 public final class MultimapTypeAdapter<K, V> extends TypeAdapter<Multimap<K, V>> {
 
-    private final Type mapType = new TypeToken<Map<K, Collection<V>>>() {
-    }.getType();
-
-    private final Gson                               gson;
-    private final TypeAdapter<K>                     keyAdapter;
-    private final TypeAdapter<V>                     valueAdapter;
-    private final Supplier<? extends Multimap<K, V>> supplier;
+    private final TypeAdapter<K>                                      keyAdapter;
+    private final TypeAdapter<V>                                      valueAdapter;
+    private final Supplier<? extends Multimap<K, V>>                  supplier;
+    private final Supplier<? extends ImmutableMultimap.Builder<K, V>> builder;
+    private final MapKeyCodec<K>                                      keyCodec;
+    private final boolean                                             complexMapKeySerialization;
+    private final SizeStatistics                                      statistics;
 
     /**
      * Constructs a new {@code MultimapTypeAdapter} which can serialize and deserialize {@code Multimap} values as
@@ -64,19 +72,56 @@ public final class MultimapTypeAdapter<K, V> extends TypeAdapter<Multimap<K, V>>
      */
     @SuppressWarnings("unchecked")
     public MultimapTypeAdapter(final Gson gson, final Type keyType, final Type valueType, final Supplier<? extends Multimap<K, V>> supplier) {
+        this(gson, keyType, valueType, supplier, (MapKeyCodec<K>) MapKeyCodecs.forType(checkNotNull(gson, "gson == null"), checkNotNull(keyType, "keyType == null")));
+    }
+
+    /**
+     * Constructs a new {@code MultimapTypeAdapter} which can serialize and deserialize {@code Multimap} values using the
+     * specified {@link MapKeyCodec} to convert keys to and from JSON object member names.
+     * <p>
+     * The other constructors use the {@link MapKeyCodecs#forType(Gson, Type) built-in codec} for the type of keys, if
+     * any.
+     *
+     * @param gson      a {@code Gson} instance which can handle the serialization and deserialization of the type of keys
+     *                  and values contained within the {@code Multimap}
+     * @param keyType   the {@link Type} of keys
+     * @param valueType the {@link Type} of mapped values
+     * @param supplier  a {@link Supplier} which returns empty {@code Multimap} instances
+     * @param keyCodec  the {@code MapKeyCodec} for the type of keys or {@code null} to convert keys using the key
+     *                  {@code TypeAdapter}
+     */
+    public MultimapTypeAdapter(final Gson gson, final Type keyType, final Type valueType, final Supplier<? extends Multimap<K, V>> supplier, final MapKeyCodec<K> keyCodec) {
+        this(gson, keyType, valueType, checkNotNull(supplier, "supplier == null"), null, keyCodec, null);
+    }
+
+    /**
+     * Constructs a new {@code MultimapTypeAdapter} which deserializes {@code Multimap} values into the {@code Multimap}s
+     * returned by the {@code supplier} or, if it is {@code null}, by the {@link ImmutableMultimap.Builder}s returned by
+     * the {@code builder}. The size of every {@code Multimap} read is recorded in the specified {@link SizeStatistics},
+     * if not {@code null}.
+     */
+    MultimapTypeAdapter(final Gson gson, final Type keyType, final Type valueType, final Supplier<? extends Multimap<K, V>> supplier, final Supplier<? extends ImmutableMultimap.Builder<K, V>> builder,
+            final MapKeyCodec<K> keyCodec, final SizeStatistics statistics) {
         checkNotNull(gson, "gson == null");
         checkNotNull(keyType, "keyType == null");
         checkNotNull(valueType, "valueType == null");
-        checkNotNull(supplier, "supplier == null");
+        checkArgument(supplier == null ^ builder == null, "exactly one of supplier or builder must be specified");
 
-        this.gson         = gson;
-        this.keyAdapter   = (TypeAdapter<K>) gson.getAdapter(TypeToken.get(keyType));
-        this.valueAdapter = (TypeAdapter<V>) gson.getAdapter(TypeToken.get(valueType));
-        this.supplier     = supplier;
+        this.keyAdapter                 = new RuntimeTypeAdapter<>(gson, keyType);
+        this.valueAdapter               = new RuntimeTypeAdapter<>(gson, valueType);
+        this.supplier                   = supplier;
+        this.builder                    = builder;
+        this.keyCodec                   = keyCodec;
+        this.complexMapKeySerialization = MapKeyCodecs.isComplexMapKeySerialization(gson);
+        this.statistics                 = statistics;
     }
 
     /**
      * Writes the specified {@code Multimap} value to the {@code JsonWriter}.
+     * <p>
+     * Keys and values are written directly by the key and value adapters, following the same rules as Gson's own
+     * {@code Map} adapter: the array form is only used if complex map key serialization is enabled and at least one key
+     * serializes to a JSON array or object.
      * 
      * @param out   the specified {@code JsonWriter}
      * @param value the {@code Multimap} value to write
@@ -90,7 +135,59 @@ public final class MultimapTypeAdapter<K, V> extends TypeAdapter<Multimap<K, V>>
             return;
         }
 
-        gson.toJson(value.asMap(), mapType, out);
+        final Map<K, Collection<V>> map = value.asMap();
+
+        if (!complexMapKeySerialization) {
+            out.beginObject();
+            for (final Map.Entry<K, Collection<V>> entry : map.entrySet()) {
+                out.name(String.valueOf(entry.getKey()));
+                writeValues(out, entry.getValue());
+            }
+            out.endObject();
+        } else if (keyCodec != null) { // keys with a codec are never complex
+            out.beginObject();
+            for (final Map.Entry<K, Collection<V>> entry : map.entrySet()) {
+                out.name(keyCodec.encode(entry.getKey()));
+                writeValues(out, entry.getValue());
+            }
+            out.endObject();
+        } else {
+            final List<JsonElement> keys        = new ArrayList<>(map.size());
+            boolean                 complexKeys = false;
+
+            for (final K key : map.keySet()) {
+                final JsonElement element = keyAdapter.toJsonTree(key);
+                complexKeys |= element.isJsonArray() || element.isJsonObject();
+                keys.add(element);
+            }
+
+            final Iterator<JsonElement> names = keys.iterator();
+
+            if (complexKeys) { // see GsonBuilder.enableComplexMapKeySerialization()
+                out.beginArray(); // elements
+                for (final Collection<V> values : map.values()) {
+                    out.beginArray(); // element
+                    Streams.write(names.next(), out); // key
+                    writeValues(out, values);
+                    out.endArray();
+                }
+                out.endArray();
+            } else {
+                out.beginObject();
+                for (final Collection<V> values : map.values()) {
+                    out.name(MapKeyCodecs.keyToString(names.next()));
+                    writeValues(out, values);
+                }
+                out.endObject();
+            }
+        }
+    }
+
+    private void writeValues(final JsonWriter out, final Collection<V> values) throws IOException {
+        out.beginArray();
+        for (final V value : values)
+            valueAdapter.write(out, value);
+        out.endArray();
     }
 
     /**
@@ -102,11 +199,39 @@ public final class MultimapTypeAdapter<K, V> extends TypeAdapter<Multimap<K, V>>
     public Multimap<K, V> read(final JsonReader in) throws IOException {
         checkNotNull(in, "in == null");
 
-        final Multimap<K, V> multimap = supplier.get();
+        final Multimap<K, V> multimap;
 
+        if (builder == null) {
+            final Multimap<K, V> mutable = supplier.get();
+            if (!readEntries(in, mutable::put))
+                return null;
+            multimap = mutable;
+        } else {
+            final ImmutableMultimap.Builder<K, V> immutable = builder.get();
+            if (!readEntries(in, immutable::put))
+                return null;
+            multimap = immutable.build();
+        }
+
+        if (statistics != null)
+            statistics.record(multimap.keySet().size(), multimap.size());
+
+        return multimap;
+    }
+
+    /**
+     * Consumes the next {@code Multimap} value from the specified {@code JsonReader}, passing each entry to the given
+     * consumer as it is read.
+     *
+     * @param in       the {@code JsonReader} to read from
+     * @param consumer the consumer of entries
+     * @return {@code false} if the next value is {@code null}, otherwise {@code true}
+     * @throws IOException if an I/O error occurs
+     */
+    boolean readEntries(final JsonReader in, final BiConsumer<? super K, ? super V> consumer) throws IOException {
         if (in.peek() == JsonToken.NULL) {
             in.nextNull();
-            return null;
+            return false;
         } else if (in.peek() == JsonToken.BEGIN_ARRAY) { // see GsonBuilder.enableComplexMapKeySerialization()
             in.beginArray(); // elements
             while (in.hasNext()) {
@@ -115,7 +240,7 @@ public final class MultimapTypeAdapter<K, V> extends TypeAdapter<Multimap<K, V>>
                 in.beginArray(); // values
                 while (in.hasNext()) {
                     final V value = valueAdapter.read(in); // value
-                    multimap.put(key, value);
+                    consumer.accept(key, value);
                 }
                 in.endArray();
                 in.endArray();
@@ -124,20 +249,18 @@ public final class MultimapTypeAdapter<K, V> extends TypeAdapter<Multimap<K, V>>
         } else {
             in.beginObject();
             while (in.hasNext()) {
-                final String keyJson = "\"" + in.nextName() + "\"";
-                final K      key     = keyAdapter.fromJson(keyJson);
+                final K key = MapKeyCodecs.nextKey(in, keyCodec, keyAdapter);
 
                 in.beginArray();
                 while (in.hasNext()) {
                     final V value = valueAdapter.read(in);
-                    multimap.put(key, value);
+                    consumer.accept(key, value);
                 }
                 in.endArray();
             }
             in.endObject();
         }
-
-        return multimap;
+        return true;
     }
 
-}
\ No newline at end of file
+}
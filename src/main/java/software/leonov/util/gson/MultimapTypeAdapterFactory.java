@@ -4,9 +4,18 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
 
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.LinkedListMultimap;
 import com.google.common.collect.ListMultimap;
@@ -29,17 +38,63 @@ import com.google.gson.reflect.TypeToken;
  * <li>{@link LinkedHashMultimap}</li>
  * <li>{@link TreeMultimap}</li>
  * <li>{@link LinkedListMultimap}</li>
+ * <li>{@link ImmutableListMultimap} (default for {@link ImmutableMultimap})</li>
+ * <li>{@link ImmutableSetMultimap}</li>
  * </ul>
  * <p>
  * <b>Serialization/Deserialization Behavior:</b>
  * <p>
  * All {@code Multimap} implementations can be serialized to JSON. Attempting to deserialize unsupported
  * {@code Multimap} implementations will result in an {@link IllegalArgumentException}.
+ * <p>
+ * Immutable {@code Multimap}s are built directly by their {@link ImmutableMultimap.Builder builders}, without an
+ * intermediate mutable copy. They do not permit {@code null} keys or values.
+ * <p>
+ * <b>Adaptive Sizing:</b>
+ * <p>
+ * By default deserialized {@code Multimap}s are created empty and grow as entries are added. A factory returned by
+ * {@link #withAdaptiveSizing()} records the {@link SizeStatistics size} of every {@code Multimap} read by each adapter,
+ * and pre-sizes the {@code ArrayListMultimap}s, {@code HashMultimap}s, {@code LinkedHashMultimap}s, and
+ * {@code LinkedListMultimap}s it creates thereafter to the mean number of keys and values per key seen so far.
  *
  * @author Zhenya Leonov
  */
 public final class MultimapTypeAdapterFactory implements TypeAdapterFactory {
 
+    private final boolean                                     adaptiveSizing;
+    private final ConcurrentMap<TypeToken<?>, SizeStatistics> statistics = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new {@code MultimapTypeAdapterFactory}.
+     */
+    public MultimapTypeAdapterFactory() {
+        this(false);
+    }
+
+    private MultimapTypeAdapterFactory(final boolean adaptiveSizing) {
+        this.adaptiveSizing = adaptiveSizing;
+    }
+
+    /**
+     * Returns a new {@code MultimapTypeAdapterFactory} which pre-sizes deserialized {@code Multimap}s based on the sizes
+     * of previously read values of the same type.
+     *
+     * @return a new {@code MultimapTypeAdapterFactory} which pre-sizes deserialized {@code Multimap}s
+     */
+    public MultimapTypeAdapterFactory withAdaptiveSizing() {
+        return new MultimapTypeAdapterFactory(true);
+    }
+
+    /**
+     * Returns an unmodifiable view of the {@link SizeStatistics} recorded for each {@code Multimap} type deserialized so
+     * far. Always empty unless this factory was created by {@link #withAdaptiveSizing()}.
+     *
+     * @return an unmodifiable view of the {@code SizeStatistics} recorded for each {@code Multimap} type
+     */
+    public Map<TypeToken<?>, SizeStatistics> getStatistics() {
+        return Collections.unmodifiableMap(statistics);
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public <T> TypeAdapter<T> create(final Gson gson, final TypeToken<T> typeToken) {
@@ -64,23 +119,56 @@ public final class MultimapTypeAdapterFactory implements TypeAdapterFactory {
             }
 
             if (clazz.equals(Multimap.class) || clazz.equals(ListMultimap.class) || clazz.equals(ArrayListMultimap.class))
-                return (TypeAdapter<T>) new MultimapTypeAdapter<>(gson, keyType, valueType, () -> ArrayListMultimap.create());
+                return (TypeAdapter<T>) newAdapter(gson, typeToken, keyType, valueType, () -> ArrayListMultimap.create(), (keys, valuesPerKey) -> ArrayListMultimap.create(keys, valuesPerKey));
             else if (clazz.equals(SetMultimap.class) || clazz.equals(HashMultimap.class))
-                return (TypeAdapter<T>) new MultimapTypeAdapter<>(gson, keyType, valueType, () -> HashMultimap.create());
+                return (TypeAdapter<T>) newAdapter(gson, typeToken, keyType, valueType, () -> HashMultimap.create(), (keys, valuesPerKey) -> HashMultimap.create(keys, valuesPerKey));
             else if (clazz.equals(LinkedHashMultimap.class))
-                return (TypeAdapter<T>) new MultimapTypeAdapter<>(gson, keyType, valueType, () -> LinkedHashMultimap.create());
+                return (TypeAdapter<T>) newAdapter(gson, typeToken, keyType, valueType, () -> LinkedHashMultimap.create(), (keys, valuesPerKey) -> LinkedHashMultimap.create(keys, valuesPerKey));
             else if (clazz.equals(SortedSetMultimap.class) || clazz.equals(TreeMultimap.class))
-                return (TypeAdapter<T>) new MultimapTypeAdapter<>(gson, keyType, valueType, () -> TreeMultimap.create());
+                return (TypeAdapter<T>) newAdapter(gson, typeToken, keyType, valueType, () -> TreeMultimap.create(), null);
             else if (clazz.equals(LinkedListMultimap.class))
-                return (TypeAdapter<T>) new MultimapTypeAdapter<>(gson, keyType, valueType, () -> LinkedListMultimap.create());
+                return (TypeAdapter<T>) newAdapter(gson, typeToken, keyType, valueType, () -> LinkedListMultimap.create(), (keys, valuesPerKey) -> LinkedListMultimap.create(keys));
+            else if (clazz.equals(ImmutableMultimap.class) || clazz.equals(ImmutableListMultimap.class))
+                return (TypeAdapter<T>) newImmutableAdapter(gson, typeToken, keyType, valueType, () -> ImmutableListMultimap.builder());
+            else if (clazz.equals(ImmutableSetMultimap.class))
+                return (TypeAdapter<T>) newImmutableAdapter(gson, typeToken, keyType, valueType, () -> ImmutableSetMultimap.builder());
             else
                 return (TypeAdapter<T>) new MultimapTypeAdapter<>(gson, keyType, valueType, () -> {
-                    throw new IllegalArgumentException(String.format("%s is not supported; try one of [%s, %s, %s, %s, %s]", clazz.getSimpleName(), ArrayListMultimap.class.getSimpleName(), HashMultimap.class.getSimpleName(),
-                            LinkedHashMultimap.class.getSimpleName(), TreeMultimap.class.getSimpleName(), LinkedListMultimap.class.getSimpleName()));
+                    throw new IllegalArgumentException(String.format("%s is not supported; try one of [%s, %s, %s, %s, %s, %s, %s]", clazz.getSimpleName(), ArrayListMultimap.class.getSimpleName(), HashMultimap.class.getSimpleName(),
+                            LinkedHashMultimap.class.getSimpleName(), TreeMultimap.class.getSimpleName(), LinkedListMultimap.class.getSimpleName(), ImmutableListMultimap.class.getSimpleName(),
+                            ImmutableSetMultimap.class.getSimpleName()));
                 });
 
         }
 
         return null;
     }
+
+    /*
+     * The sized factory is null for implementations which cannot be pre-sized.
+     */
+    @SuppressWarnings("unchecked")
+    private <K, V> TypeAdapter<Multimap<K, V>> newAdapter(final Gson gson, final TypeToken<?> typeToken, final Type keyType, final Type valueType, final Supplier<Multimap<K, V>> supplier,
+            final BiFunction<Integer, Integer, Multimap<K, V>> sized) {
+        if (!adaptiveSizing)
+            return new MultimapTypeAdapter<>(gson, keyType, valueType, supplier);
+
+        final SizeStatistics stats = statistics.computeIfAbsent(typeToken, type -> new SizeStatistics());
+
+        final Supplier<Multimap<K, V>> adaptive = sized == null ? supplier : () -> stats.getReadCount() == 0 ? supplier.get() : sized.apply(stats.getExpectedKeys(), stats.getExpectedValuesPerKey());
+
+        return new MultimapTypeAdapter<>(gson, keyType, valueType, adaptive, null, (MapKeyCodec<K>) MapKeyCodecs.forType(gson, keyType), stats);
+    }
+
+    /*
+     * Guava does not offer pre-sized ImmutableMultimap builders; statistics are recorded for monitoring only.
+     */
+    @SuppressWarnings("unchecked")
+    private <K, V> TypeAdapter<Multimap<K, V>> newImmutableAdapter(final Gson gson, final TypeToken<?> typeToken, final Type keyType, final Type valueType,
+            final Supplier<ImmutableMultimap.Builder<K, V>> builder) {
+        final SizeStatistics stats = adaptiveSizing ? statistics.computeIfAbsent(typeToken, type -> new SizeStatistics()) : null;
+
+        return new MultimapTypeAdapter<>(gson, keyType, valueType, null, builder, (MapKeyCodec<K>) MapKeyCodecs.forType(gson, keyType), stats);
+    }
+
 }
\ No newline at end of file
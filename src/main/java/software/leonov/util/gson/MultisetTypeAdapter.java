@@ -1,11 +1,14 @@
 package software.leonov.util.gson;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.util.function.ObjIntConsumer;
 import java.util.function.Supplier;
 
+import com.google.common.collect.ImmutableMultiset;
 import com.google.common.collect.LinkedHashMultiset;
 import com.google.common.collect.Multiset;
 import com.google.gson.Gson;
@@ -17,13 +20,21 @@ import com.google.gson.stream.JsonWriter;
 
 /**
  * A {@link TypeAdapter} which can serialize and deserialize of {@link Multiset} values to and from JSON.
+ * <p>
+ * By default a {@code Multiset} is written as an array of {@code [element, count]} pairs. If an element
+ * {@link MapKeyCodec} is specified it is written in the more compact object form {@code {"element": count}} instead,
+ * unless it contains {@code null}, which cannot be represented as an object member name. Both forms are always accepted
+ * when reading.
  *
  * @param <E> the type of elements contained in the {@code Multiset}
  */
 public final class MultisetTypeAdapter<E> extends TypeAdapter<Multiset<E>> {
 
-    private final TypeAdapter<E>                  adapter;
-    private final Supplier<? extends Multiset<E>> supplier;
+    private final TypeAdapter<E>                                   adapter;
+    private final Supplier<? extends Multiset<E>>                  supplier;
+    private final Supplier<? extends ImmutableMultiset.Builder<E>> builder;
+    private final MapKeyCodec<E>                                   elementCodec;
+    private final SizeStatistics                                   statistics;
 
     /**
      * Constructs a new {@code MultisetTypeAdapter} which can serialize and deserialize {@code Multiset} values as
@@ -48,14 +59,48 @@ public final class MultisetTypeAdapter<E> extends TypeAdapter<Multiset<E>> {
      * @param type     the {@link Type} of elements
      * @param supplier a {@link Supplier} which returns empty {@code Multiset} instances
      */
-    @SuppressWarnings("unchecked")
     public MultisetTypeAdapter(final Gson gson, final Type type, final Supplier<? extends Multiset<E>> supplier) {
+        this(gson, type, supplier, null);
+    }
+
+    /**
+     * Constructs a new {@code MultisetTypeAdapter} which can serialize and deserialize {@code Multiset} values. If the
+     * specified {@link MapKeyCodec} is not {@code null}, {@code Multiset}s are written in the compact object form
+     * {@code {"element": count}}, using the codec to convert elements to and from JSON object member names.
+     * {@code Multiset}s which contain {@code null} are always written as arrays of {@code [element, count]} pairs.
+     * <p>
+     * Codecs for {@code String}, enum, numeric, and other simple types are available from
+     * {@link MapKeyCodecs#forType(Gson, Type)}.
+     *
+     * @param gson         a {@code Gson} instance which can handle the serialization and deserialization of the type of
+     *                     elements contained within the {@code Multiset}
+     * @param type         the {@link Type} of elements
+     * @param supplier     a {@link Supplier} which returns empty {@code Multiset} instances
+     * @param elementCodec the {@code MapKeyCodec} for the type of elements or {@code null} to write {@code Multiset}s as
+     *                     arrays of {@code [element, count]} pairs
+     */
+    public MultisetTypeAdapter(final Gson gson, final Type type, final Supplier<? extends Multiset<E>> supplier, final MapKeyCodec<E> elementCodec) {
+        this(gson, type, checkNotNull(supplier, "supplier == null"), null, elementCodec, null);
+    }
+
+    /**
+     * Constructs a new {@code MultisetTypeAdapter} which deserializes {@code Multiset} values into the {@code Multiset}s
+     * returned by the {@code supplier} or, if it is {@code null}, by the {@link ImmutableMultiset.Builder}s returned by
+     * the {@code builder}. The size of every {@code Multiset} read is recorded in the specified {@link SizeStatistics},
+     * if not {@code null}.
+     */
+    @SuppressWarnings("unchecked")
+    MultisetTypeAdapter(final Gson gson, final Type type, final Supplier<? extends Multiset<E>> supplier, final Supplier<? extends ImmutableMultiset.Builder<E>> builder, final MapKeyCodec<E> elementCodec,
+            final SizeStatistics statistics) {
         checkNotNull(gson, "gson == null");
         checkNotNull(type, "type == null");
-        checkNotNull(supplier, "supplier == null");
+        checkArgument(supplier == null ^ builder == null, "exactly one of supplier or builder must be specified");
 
-        this.adapter  = (TypeAdapter<E>) gson.getAdapter(TypeToken.get(type));
-        this.supplier = supplier;
+        this.adapter      = (TypeAdapter<E>) gson.getAdapter(TypeToken.get(type));
+        this.supplier     = supplier;
+        this.builder      = builder;
+        this.elementCodec = elementCodec;
+        this.statistics   = statistics;
     }
 
     /**
@@ -73,14 +118,32 @@ public final class MultisetTypeAdapter<E> extends TypeAdapter<Multiset<E>> {
             return;
         }
 
-        out.beginArray();
-        for (final Multiset.Entry<E> entry : value.entrySet()) {
+        if (elementCodec != null && !containsNull(value)) {
+            out.beginObject();
+            for (final Multiset.Entry<E> entry : value.entrySet())
+                out.name(elementCodec.encode(entry.getElement())).value(entry.getCount());
+            out.endObject();
+        } else {
             out.beginArray();
-            adapter.write(out, entry.getElement());
-            out.value(entry.getCount());
+            for (final Multiset.Entry<E> entry : value.entrySet()) {
+                out.beginArray();
+                adapter.write(out, entry.getElement());
+                out.value(entry.getCount());
+                out.endArray();
+            }
             out.endArray();
         }
-        out.endArray();
+    }
+
+    /*
+     * Multisets which do not permit null elements may throw a NullPointerException instead of returning 0.
+     */
+    private static boolean containsNull(final Multiset<?> multiset) {
+        try {
+            return multiset.count(null) > 0;
+        } catch (final NullPointerException e) {
+            return false;
+        }
     }
 
     /**
@@ -92,11 +155,48 @@ public final class MultisetTypeAdapter<E> extends TypeAdapter<Multiset<E>> {
     public Multiset<E> read(final JsonReader in) throws IOException {
         checkNotNull(in, "in == null");
 
-        final Multiset<E> multiset = supplier.get();
+        final Multiset<E> multiset;
+
+        if (builder == null) {
+            final Multiset<E> mutable = supplier.get();
+            if (!readEntries(in, mutable::add))
+                return null;
+            multiset = mutable;
+        } else {
+            final ImmutableMultiset.Builder<E> immutable = builder.get();
+            if (!readEntries(in, immutable::addCopies))
+                return null;
+            multiset = immutable.build();
+        }
+
+        if (statistics != null)
+            statistics.record(multiset.elementSet().size(), multiset.size());
+
+        return multiset;
+    }
 
+    /**
+     * Consumes the next {@code Multiset} value from the specified {@code JsonReader}, passing each element and its count
+     * to the given consumer as it is read.
+     *
+     * @param in       the {@code JsonReader} to read from
+     * @param consumer the consumer of elements and their counts
+     * @return {@code false} if the next value is {@code null}, otherwise {@code true}
+     * @throws IOException if an I/O error occurs
+     */
+    boolean readEntries(final JsonReader in, final ObjIntConsumer<? super E> consumer) throws IOException {
         if (in.peek() == JsonToken.NULL) {
             in.nextNull();
-            return null;
+            return false;
+        } else if (in.peek() == JsonToken.BEGIN_OBJECT) {
+            in.beginObject();
+            while (in.hasNext()) {
+                final E   element = MapKeyCodecs.nextKey(in, elementCodec, adapter);
+                final int count   = in.nextInt();
+                consumer.accept(element, count);
+            }
+            in.endObject();
+            return true;
         }
 
         in.beginArray();
@@ -104,12 +204,12 @@ public final class MultisetTypeAdapter<E> extends TypeAdapter<Multiset<E>> {
             in.beginArray();
             final E   element = adapter.read(in);
             final int count   = in.nextInt();
-            multiset.add(element, count);
+            consumer.accept(element, count);
             in.endArray();
         }
         in.endArray();
 
-        return multiset;
+        return true;
     }
 
-}
\ No newline at end of file
+}
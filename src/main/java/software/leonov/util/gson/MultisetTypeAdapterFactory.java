@@ -4,9 +4,16 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
 
 import com.google.common.collect.ConcurrentHashMultiset;
 import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableMultiset;
 import com.google.common.collect.LinkedHashMultiset;
 import com.google.common.collect.Multiset;
 import com.google.common.collect.SortedMultiset;
@@ -25,17 +32,82 @@ import com.google.gson.reflect.TypeToken;
  * <li>{@link HashMultiset}</li>
  * <li>{@link TreeMultiset}</li>
  * <li>{@link ConcurrentHashMultiset}</li>
+ * <li>{@link ImmutableMultiset}</li>
  * </ul>
  * <p>
  * <b>Serialization/Deserialization Behavior:</b>
  * <p>
  * All {@code Multiset} implementations can be serialized to JSON. Attempting to deserialize unsupported
  * {@code Multiset} implementations will result in an {@link IllegalArgumentException}.
+ * <p>
+ * Immutable {@code Multiset}s are built directly by their {@link ImmutableMultiset.Builder builders}, without an
+ * intermediate mutable copy. They do not permit {@code null} elements.
+ * <p>
+ * <b>Adaptive Sizing:</b>
+ * <p>
+ * By default deserialized {@code Multiset}s are created empty and grow as elements are added. A factory returned by
+ * {@link #withAdaptiveSizing()} records the {@link SizeStatistics size} of every {@code Multiset} read by each adapter,
+ * and pre-sizes the {@code HashMultiset}s and {@code LinkedHashMultiset}s it creates thereafter to the mean number of
+ * distinct elements seen so far.
+ * <p>
+ * <b>Object Encoding:</b>
+ * <p>
+ * By default {@code Multiset}s are written as arrays of {@code [element, count]} pairs. A factory returned by
+ * {@link #withObjectEncoding()} writes {@code Multiset}s of {@code String}s, enums, numbers, and other types supported
+ * by {@link MapKeyCodecs#forType(Gson, Type)} in the more compact object form {@code {"element": count}}, unless they
+ * contain {@code null}. Both forms are always accepted when reading.
  *
  * @author Zhenya Leonov
  */
 public final class MultisetTypeAdapterFactory implements TypeAdapterFactory {
 
+    private final boolean                                     adaptiveSizing;
+    private final boolean                                     objectEncoding;
+    private final ConcurrentMap<TypeToken<?>, SizeStatistics> statistics = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new {@code MultisetTypeAdapterFactory}.
+     */
+    public MultisetTypeAdapterFactory() {
+        this(false, false);
+    }
+
+    private MultisetTypeAdapterFactory(final boolean adaptiveSizing, final boolean objectEncoding) {
+        this.adaptiveSizing = adaptiveSizing;
+        this.objectEncoding = objectEncoding;
+    }
+
+    /**
+     * Returns a new {@code MultisetTypeAdapterFactory} which pre-sizes deserialized {@code Multiset}s based on the sizes
+     * of previously read values of the same type.
+     *
+     * @return a new {@code MultisetTypeAdapterFactory} which pre-sizes deserialized {@code Multiset}s
+     */
+    public MultisetTypeAdapterFactory withAdaptiveSizing() {
+        return new MultisetTypeAdapterFactory(true, objectEncoding);
+    }
+
+    /**
+     * Returns a new {@code MultisetTypeAdapterFactory} which writes {@code Multiset}s in the compact object form
+     * {@code {"element": count}} whenever a {@link MapKeyCodec} is {@link MapKeyCodecs#forType(Gson, Type) available} for
+     * the type of elements.
+     *
+     * @return a new {@code MultisetTypeAdapterFactory} which writes {@code Multiset}s in the compact object form
+     */
+    public MultisetTypeAdapterFactory withObjectEncoding() {
+        return new MultisetTypeAdapterFactory(adaptiveSizing, true);
+    }
+
+    /**
+     * Returns an unmodifiable view of the {@link SizeStatistics} recorded for each {@code Multiset} type deserialized so
+     * far. Always empty unless this factory was created by {@link #withAdaptiveSizing()}.
+     *
+     * @return an unmodifiable view of the {@code SizeStatistics} recorded for each {@code Multiset} type
+     */
+    public Map<TypeToken<?>, SizeStatistics> getStatistics() {
+        return Collections.unmodifiableMap(statistics);
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public <T> TypeAdapter<T> create(final Gson gson, final TypeToken<T> typeToken) {
@@ -50,19 +122,50 @@ public final class MultisetTypeAdapterFactory implements TypeAdapterFactory {
             final Type elementType = type instanceof ParameterizedType ? ((ParameterizedType) type).getActualTypeArguments()[0] : Object.class;
 
             if (clazz.equals(HashMultiset.class))
-                return (TypeAdapter<T>) new MultisetTypeAdapter<>(gson, elementType, () -> HashMultiset.create());
+                return (TypeAdapter<T>) newAdapter(gson, typeToken, elementType, () -> HashMultiset.create(), distinctElements -> HashMultiset.create(distinctElements));
             else if (clazz.equals(Multiset.class) || clazz.equals(LinkedHashMultiset.class))
-                return (TypeAdapter<T>) new MultisetTypeAdapter<>(gson, elementType, () -> LinkedHashMultiset.create());
+                return (TypeAdapter<T>) newAdapter(gson, typeToken, elementType, () -> LinkedHashMultiset.create(), distinctElements -> LinkedHashMultiset.create(distinctElements));
             else if (clazz.equals(SortedMultiset.class) || clazz.equals(TreeMultiset.class))
-                return (TypeAdapter<T>) new MultisetTypeAdapter<>(gson, elementType, () -> TreeMultiset.create());
+                return (TypeAdapter<T>) newAdapter(gson, typeToken, elementType, () -> TreeMultiset.create(), null);
             else if (clazz.equals(ConcurrentHashMultiset.class))
-                return (TypeAdapter<T>) new MultisetTypeAdapter<>(gson, elementType, () -> ConcurrentHashMultiset.create());
+                return (TypeAdapter<T>) newAdapter(gson, typeToken, elementType, () -> ConcurrentHashMultiset.create(), null);
+            else if (clazz.equals(ImmutableMultiset.class))
+                return (TypeAdapter<T>) newImmutableAdapter(gson, typeToken, elementType, () -> ImmutableMultiset.builder());
             else
                 return (TypeAdapter<T>) new MultisetTypeAdapter<>(gson, elementType, () -> {
-                    throw new IllegalArgumentException(String.format("%s is not supported; try one of [%s, %s, %s, %s]", clazz.getSimpleName(), HashMultiset.class.getSimpleName(), LinkedHashMultiset.class.getSimpleName(),
-                            TreeMultiset.class.getSimpleName(), ConcurrentHashMultiset.class.getSimpleName()));
-                });
+                    throw new IllegalArgumentException(String.format("%s is not supported; try one of [%s, %s, %s, %s, %s]", clazz.getSimpleName(), HashMultiset.class.getSimpleName(), LinkedHashMultiset.class.getSimpleName(),
+                            TreeMultiset.class.getSimpleName(), ConcurrentHashMultiset.class.getSimpleName(), ImmutableMultiset.class.getSimpleName()));
+                }, elementCodec(gson, elementType));
         }
         return null;
     }
+
+    /*
+     * The sized factory is null for implementations which cannot be pre-sized.
+     */
+    private <E> TypeAdapter<Multiset<E>> newAdapter(final Gson gson, final TypeToken<?> typeToken, final Type elementType, final Supplier<Multiset<E>> supplier, final IntFunction<Multiset<E>> sized) {
+        if (!adaptiveSizing)
+            return new MultisetTypeAdapter<>(gson, elementType, supplier, elementCodec(gson, elementType));
+
+        final SizeStatistics stats = statistics.computeIfAbsent(typeToken, type -> new SizeStatistics());
+
+        final Supplier<Multiset<E>> adaptive = sized == null ? supplier : () -> stats.getReadCount() == 0 ? supplier.get() : sized.apply(stats.getExpectedKeys());
+
+        return new MultisetTypeAdapter<>(gson, elementType, adaptive, null, elementCodec(gson, elementType), stats);
+    }
+
+    /*
+     * Guava does not offer pre-sized ImmutableMultiset builders; statistics are recorded for monitoring only.
+     */
+    private <E> TypeAdapter<Multiset<E>> newImmutableAdapter(final Gson gson, final TypeToken<?> typeToken, final Type elementType, final Supplier<ImmutableMultiset.Builder<E>> builder) {
+        final SizeStatistics stats = adaptiveSizing ? statistics.computeIfAbsent(typeToken, type -> new SizeStatistics()) : null;
+
+        return new MultisetTypeAdapter<>(gson, elementType, null, builder, elementCodec(gson, elementType), stats);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <E> MapKeyCodec<E> elementCodec(final Gson gson, final Type elementType) {
+        return objectEncoding ? (MapKeyCodec<E>) MapKeyCodecs.forType(gson, elementType) : null;
+    }
+
 }
@@ -0,0 +1,86 @@
+package software.leonov.util.gson;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.util.OptionalDouble;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * A {@link TypeAdapter} which can serialize and deserialize {@link OptionalDouble} values to and from JSON.
+ * <p>
+ * {@link OptionalDouble#empty() Empty} {@code OptionalDouble}s are serialized as JSON-encoded {@link JsonToken#NULL NULL}s
+ * while {@link OptionalDouble#isPresent() present} values are written and read as {@code double} primitives, without boxing.
+ * <p>
+ * {@code NaN} and infinite values are written by the {@code Gson} instance's own {@code double} adapter, which rejects
+ * them unless {@link GsonBuilder#serializeSpecialFloatingPointValues()} is enabled.
+ */
+public final class OptionalDoubleTypeAdapter extends TypeAdapter<OptionalDouble> {
+
+    private final TypeAdapter<Double> nonFiniteAdapter;
+
+    /**
+     * Constructs a new {@code OptionalDoubleTypeAdapter} which rejects {@code NaN} and infinite values, as Gson does by
+     * default.
+     */
+    public OptionalDoubleTypeAdapter() {
+        this.nonFiniteAdapter = null;
+    }
+
+    /**
+     * Constructs a new {@code OptionalDoubleTypeAdapter} which writes {@code NaN} and infinite values using the
+     * {@code double} adapter of the specified {@code Gson} instance.
+     *
+     * @param gson the {@code Gson} instance whose {@code double} adapter writes {@code NaN} and infinite values
+     */
+    public OptionalDoubleTypeAdapter(final Gson gson) {
+        checkNotNull(gson, "gson == null");
+        this.nonFiniteAdapter = gson.getAdapter(double.class);
+    }
+
+    /**
+     * Writes the specified {@code OptionalDouble} value to the {@code JsonWriter}.
+     * <p>
+     * <b>Warning:</b> This method slightly violates the contract of the {@code write} method by rejecting {@code null}
+     * values. This is required because the {@code OptionalDouble} instance itself cannot be {@code null}, as it would be
+     * impossible to differentiate between {@code null} and empty {@code OptionalDouble}s.
+     * 
+     * @param out   the specified {@code JsonWriter}
+     * @param value the {@code OptionalDouble} value to write
+     * @throws NullPointerException     if the {@code OptionalDouble} value itself is {@code null}
+     * @throws IllegalArgumentException if the value is {@code NaN} or infinite and special floating point values are not
+     *                                  permitted
+     */
+    @Override
+    public void write(final JsonWriter out, final OptionalDouble value) throws IOException {
+        checkNotNull(out, "out == null");
+        checkNotNull(value, "optional == null"); // an OptionalDouble itself should never be null
+
+        if (!value.isPresent())
+            out.nullValue();
+        else if (Double.isFinite(value.getAsDouble()))
+            out.value(value.getAsDouble());
+        else if (nonFiniteAdapter != null)
+            nonFiniteAdapter.write(out, value.getAsDouble());
+        else
+            throw new IllegalArgumentException(value.getAsDouble() + " is not a valid double value as per JSON specification"); // see Gson.checkValidFloatingPoint(double)
+    }
+
+    @Override
+    public OptionalDouble read(final JsonReader in) throws IOException {
+        checkNotNull(in, "in == null");
+
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return OptionalDouble.empty();
+        }
+        return OptionalDouble.of(in.nextDouble());
+    }
+
+}
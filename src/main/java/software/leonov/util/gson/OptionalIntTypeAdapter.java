@@ -0,0 +1,60 @@
+package software.leonov.util.gson;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.util.OptionalInt;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * A {@link TypeAdapter} which can serialize and deserialize {@link OptionalInt} values to and from JSON.
+ * <p>
+ * {@link OptionalInt#empty() Empty} {@code OptionalInt}s are serialized as JSON-encoded {@link JsonToken#NULL NULL}s
+ * while {@link OptionalInt#isPresent() present} values are written and read as {@code int} primitives, without boxing.
+ */
+public final class OptionalIntTypeAdapter extends TypeAdapter<OptionalInt> {
+
+    /**
+     * Constructs a new {@code OptionalIntTypeAdapter}.
+     */
+    public OptionalIntTypeAdapter() {
+    }
+
+    /**
+     * Writes the specified {@code OptionalInt} value to the {@code JsonWriter}.
+     * <p>
+     * <b>Warning:</b> This method slightly violates the contract of the {@code write} method by rejecting {@code null}
+     * values. This is required because the {@code OptionalInt} instance itself cannot be {@code null}, as it would be
+     * impossible to differentiate between {@code null} and empty {@code OptionalInt}s.
+     * 
+     * @param out   the specified {@code JsonWriter}
+     * @param value the {@code OptionalInt} value to write
+     * @throws NullPointerException if the {@code OptionalInt} value itself is {@code null}
+     */
+    @Override
+    public void write(final JsonWriter out, final OptionalInt value) throws IOException {
+        checkNotNull(out, "out == null");
+        checkNotNull(value, "optional == null"); // an OptionalInt itself should never be null
+
+        if (value.isPresent())
+            out.value(value.getAsInt());
+        else
+            out.nullValue();
+    }
+
+    @Override
+    public OptionalInt read(final JsonReader in) throws IOException {
+        checkNotNull(in, "in == null");
+
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return OptionalInt.empty();
+        }
+        return OptionalInt.of(in.nextInt());
+    }
+
+}
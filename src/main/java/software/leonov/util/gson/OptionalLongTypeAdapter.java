@@ -0,0 +1,60 @@
+package software.leonov.util.gson;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.util.OptionalLong;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * A {@link TypeAdapter} which can serialize and deserialize {@link OptionalLong} values to and from JSON.
+ * <p>
+ * {@link OptionalLong#empty() Empty} {@code OptionalLong}s are serialized as JSON-encoded {@link JsonToken#NULL NULL}s
+ * while {@link OptionalLong#isPresent() present} values are written and read as {@code long} primitives, without boxing.
+ */
+public final class OptionalLongTypeAdapter extends TypeAdapter<OptionalLong> {
+
+    /**
+     * Constructs a new {@code OptionalLongTypeAdapter}.
+     */
+    public OptionalLongTypeAdapter() {
+    }
+
+    /**
+     * Writes the specified {@code OptionalLong} value to the {@code JsonWriter}.
+     * <p>
+     * <b>Warning:</b> This method slightly violates the contract of the {@code write} method by rejecting {@code null}
+     * values. This is required because the {@code OptionalLong} instance itself cannot be {@code null}, as it would be
+     * impossible to differentiate between {@code null} and empty {@code OptionalLong}s.
+     * 
+     * @param out   the specified {@code JsonWriter}
+     * @param value the {@code OptionalLong} value to write
+     * @throws NullPointerException if the {@code OptionalLong} value itself is {@code null}
+     */
+    @Override
+    public void write(final JsonWriter out, final OptionalLong value) throws IOException {
+        checkNotNull(out, "out == null");
+        checkNotNull(value, "optional == null"); // an OptionalLong itself should never be null
+
+        if (value.isPresent())
+            out.value(value.getAsLong());
+        else
+            out.nullValue();
+    }
+
+    @Override
+    public OptionalLong read(final JsonReader in) throws IOException {
+        checkNotNull(in, "in == null");
+
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(in.nextLong());
+    }
+
+}
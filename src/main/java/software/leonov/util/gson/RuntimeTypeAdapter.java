@@ -0,0 +1,58 @@
+package software.leonov.util.gson;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.internal.bind.ReflectiveTypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * A {@link TypeAdapter} which writes values using the adapter for their runtime type, as Gson's own {@code Map} and
+ * {@code Collection} adapters do, so that values which are instances of a subclass of the declared type keep their
+ * subclass fields. Values are read using the adapter for the declared type.
+ * <p>
+ * Mirrors Gson's package-private {@code TypeAdapterRuntimeTypeWrapper}: the runtime type adapter is preferred, unless it
+ * is reflective and the declared type adapter is not, in which case the declared type adapter was most likely
+ * registered by the user.
+ *
+ * @param <T> the declared type
+ */
+final class RuntimeTypeAdapter<T> extends TypeAdapter<T> {
+
+    private final Gson           gson;
+    private final Type           type;
+    private final TypeAdapter<T> delegate;
+
+    @SuppressWarnings("unchecked")
+    RuntimeTypeAdapter(final Gson gson, final Type type) {
+        this.gson     = gson;
+        this.type     = type;
+        this.delegate = (TypeAdapter<T>) gson.getAdapter(TypeToken.get(type));
+    }
+
+    @Override
+    public void write(final JsonWriter out, final T value) throws IOException {
+        adapter(value).write(out, value);
+    }
+
+    @Override
+    public T read(final JsonReader in) throws IOException {
+        return delegate.read(in);
+    }
+
+    @SuppressWarnings("unchecked")
+    private TypeAdapter<T> adapter(final T value) {
+        if (value == null || !(type == Object.class || type instanceof TypeVariable || type instanceof Class) || value.getClass() == type)
+            return delegate;
+
+        final TypeAdapter<T> runtime = (TypeAdapter<T>) gson.getAdapter(value.getClass()); // cached by Gson
+
+        return runtime instanceof ReflectiveTypeAdapterFactory.Adapter && !(delegate instanceof ReflectiveTypeAdapterFactory.Adapter) ? delegate : runtime;
+    }
+
+}
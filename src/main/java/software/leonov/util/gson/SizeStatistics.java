@@ -0,0 +1,116 @@
+package software.leonov.util.gson;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Multiset;
+import com.google.common.collect.Table;
+
+/**
+ * Running statistics about the sizes of containers deserialized by a single type adapter, used to pre-size the
+ * containers created by subsequent reads.
+ * <p>
+ * The meaning of <i>keys</i> and <i>values</i> depends on the type of container:
+ * <ul>
+ * <li>{@link Multimap}: the number of distinct keys and the total number of values</li>
+ * <li>{@link Multiset}: the number of distinct elements and the total number of occurrences</li>
+ * <li>{@link Table}: the number of rows and the total number of cells</li>
+ * </ul>
+ * <p>
+ * Instances are safe for use by multiple concurrent threads.
+ *
+ * @author Zhenya Leonov
+ * @see MultimapTypeAdapterFactory#withAdaptiveSizing()
+ * @see MultisetTypeAdapterFactory#withAdaptiveSizing()
+ * @see TableTypeAdapterFactory#withAdaptiveSizing()
+ */
+public final class SizeStatistics {
+
+    private final LongAdder reads  = new LongAdder();
+    private final LongAdder keys   = new LongAdder();
+    private final LongAdder values = new LongAdder();
+
+    SizeStatistics() {
+    }
+
+    /**
+     * Records the size of a deserialized container.
+     *
+     * @param keys   the number of keys (distinct elements, rows)
+     * @param values the number of values (occurrences, cells)
+     */
+    void record(final long keys, final long values) {
+        checkArgument(keys >= 0, "keys < 0");
+        checkArgument(values >= 0, "values < 0");
+
+        this.keys.add(keys);
+        this.values.add(values);
+        this.reads.increment();
+    }
+
+    /**
+     * Returns the number of containers recorded so far.
+     *
+     * @return the number of containers recorded so far
+     */
+    public long getReadCount() {
+        return reads.sum();
+    }
+
+    /**
+     * Returns the total number of keys (distinct elements, rows) in all recorded containers.
+     *
+     * @return the total number of keys (distinct elements, rows) in all recorded containers
+     */
+    public long getTotalKeys() {
+        return keys.sum();
+    }
+
+    /**
+     * Returns the total number of values (occurrences, cells) in all recorded containers.
+     *
+     * @return the total number of values (occurrences, cells) in all recorded containers
+     */
+    public long getTotalValues() {
+        return values.sum();
+    }
+
+    /**
+     * Returns the mean number of keys (distinct elements, rows) per container, rounded up, or {@code 0} if nothing has
+     * been recorded yet.
+     *
+     * @return the mean number of keys (distinct elements, rows) per container
+     */
+    public int getExpectedKeys() {
+        return mean(getTotalKeys(), getReadCount());
+    }
+
+    /**
+     * Returns the mean number of values (occurrences, cells) per key, rounded up, or {@code 0} if nothing has been
+     * recorded yet.
+     *
+     * @return the mean number of values (occurrences, cells) per key
+     */
+    public int getExpectedValuesPerKey() {
+        return mean(getTotalValues(), getTotalKeys());
+    }
+
+    @Override
+    public String toString() {
+        // @formatter:off
+        return MoreObjects.toStringHelper(this)
+                .add("reads",                getReadCount())
+                .add("expectedKeys",         getExpectedKeys())
+                .add("expectedValuesPerKey", getExpectedValuesPerKey())
+                .toString();
+        // @formatter:on
+    }
+
+    private static int mean(final long total, final long count) {
+        return count == 0 ? 0 : (int) Math.min(Integer.MAX_VALUE, (total + count - 1) / count);
+    }
+
+}
@@ -1,18 +1,29 @@
 package software.leonov.util.gson;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
 
+import com.google.common.collect.ArrayTable;
 import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.ImmutableTable;
 import com.google.common.collect.Table;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonSyntaxException;
 import com.google.gson.TypeAdapter;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.internal.Streams;
+import com.google.gson.internal.bind.JsonTreeReader;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
@@ -21,7 +32,14 @@ import com.google.gson.stream.JsonWriter;
  * A {@link TypeAdapter} which can serialize and deserialize of {@link Table} values to and from JSON.
  * <p>
  * This adapter supports complex key serialization if the provided {@code Gson} instance
- * {@link GsonBuilder#enableComplexMapKeySerialization() supports} it.
+ * {@link GsonBuilder#enableComplexMapKeySerialization() supports} it. When row and column keys are written as JSON
+ * object member names they are converted directly by a {@link MapKeyCodec}, if one is available for their type.
+ * <p>
+ * Dense tables can be written in a columnar encoding instead (see
+ * {@link TableTypeAdapterFactory#withColumnarEncoding()}) which lists each row and column key once, followed by the
+ * values in row-major order: <pre>
+ * {"rowKeys": [r1, r2], "columnKeys": [c1, c2], "values": [[v11, v12], [v21, null]]}
+ * </pre> Absent cells are written as {@code null}. Both encodings are always accepted when reading.
  *
  * @param <R> the type of row keys
  * @param <C> the type of column keys
@@ -29,14 +47,25 @@ import com.google.gson.stream.JsonWriter;
  */
 public final class TableTypeAdapter<R, C, V> extends TypeAdapter<Table<R, C, V>> {
 
-    private final Type mapType = new TypeToken<Map<R, Map<C, V>>>() {
-    }.getType();
+    private final TypeAdapter<R>                                      rowKeyAdapter;
+    private final TypeAdapter<C>                                      columnKeyAdapter;
+    private final TypeAdapter<V>                                      valueAdapter;
+    private final Supplier<? extends Table<R, C, V>>                  supplier;
+    private final Supplier<? extends ImmutableTable.Builder<R, C, V>> builder;
+    private final MapKeyCodec<R>                                      rowKeyCodec;
+    private final MapKeyCodec<C>                                      columnKeyCodec;
+    private final boolean                                             complexMapKeySerialization;
+    private final boolean                                             columnarEncoding;
+    private final boolean                                             arrayTable;
+    private final SizeStatistics                                      statistics;
+
+    private static final String ROW_KEYS    = "rowKeys";
+    private static final String COLUMN_KEYS = "columnKeys";
+    private static final String VALUES      = "values";
 
-    private final Gson                               gson;
-    private final TypeAdapter<R>                     rowKeyAdapter;
-    private final TypeAdapter<C>                     columnKeyAdapter;
-    private final TypeAdapter<V>                     valueAdapter;
-    private final Supplier<? extends Table<R, C, V>> supplier;
+    private static final String[] COLUMNAR = { ROW_KEYS, COLUMN_KEYS, VALUES };
+
+    private static final int COLUMN_KEY_CACHE_SIZE = 4096;
 
     /**
      * Constructs a new {@code TableTypeAdapter} which can serialize and deserialize {@code Table} values.
@@ -66,19 +95,82 @@ public final class TableTypeAdapter<R, C, V> extends TypeAdapter<Table<R, C, V>>
      */
     @SuppressWarnings("unchecked")
     public TableTypeAdapter(final Gson gson, final Type rowType, final Type columnType, final Type valueType, final Supplier<? extends Table<R, C, V>> supplier) {
+        // @formatter:off
+        this(gson, rowType, columnType, valueType, supplier,
+                (MapKeyCodec<R>) MapKeyCodecs.forType(checkNotNull(gson, "gson == null"), checkNotNull(rowType, "rowType == null")),
+                (MapKeyCodec<C>) MapKeyCodecs.forType(gson, checkNotNull(columnType, "columnType == null")));
+        // @formatter:on
+    }
+
+    /**
+     * Constructs a new {@code TableTypeAdapter} which can serialize and deserialize {@code Table} values using the
+     * specified {@link MapKeyCodec}s to convert row and column keys to and from JSON object member names.
+     * <p>
+     * The other constructors use the {@link MapKeyCodecs#forType(Gson, Type) built-in codecs} for the types of keys, if
+     * any.
+     * 
+     * @param gson           a {@code Gson} instance which can handle the serialization and deserialization of the type of
+     *                       keys and values contained within the {@code Table}
+     * @param rowType        the {@link Type} of row keys
+     * @param columnType     the {@link Type} of column keys
+     * @param valueType      the {@link Type} of mapped values
+     * @param supplier       a {@link Supplier} which returns empty {@code Table} instances
+     * @param rowKeyCodec    the {@code MapKeyCodec} for the type of row keys or {@code null} to convert row keys using the
+     *                       row key {@code TypeAdapter}
+     * @param columnKeyCodec the {@code MapKeyCodec} for the type of column keys or {@code null} to convert column keys
+     *                       using the column key {@code TypeAdapter}
+     */
+    public TableTypeAdapter(final Gson gson, final Type rowType, final Type columnType, final Type valueType, final Supplier<? extends Table<R, C, V>> supplier, final MapKeyCodec<R> rowKeyCodec,
+            final MapKeyCodec<C> columnKeyCodec) {
+        this(gson, rowType, columnType, valueType, checkNotNull(supplier, "supplier == null"), null, rowKeyCodec, columnKeyCodec, false, false, null);
+    }
+
+    /**
+     * Constructs a new {@code TableTypeAdapter} which deserializes {@code Table} values into the {@code Table}s returned
+     * by the {@code supplier} or, if it is {@code null}, by the {@link ImmutableTable.Builder}s returned by the
+     * {@code builder}. If {@code arrayTable} is {@code true} the cells read into the {@code supplier}'s {@code Table}
+     * are copied into an {@link ArrayTable}, unless they are read from the columnar encoding, in which case they are
+     * read into an {@code ArrayTable} directly. {@code Table}s are written in the columnar encoding if
+     * {@code columnarEncoding} is {@code true}. The size of every {@code Table} read is recorded in the specified
+     * {@link SizeStatistics}, if not {@code null}.
+     */
+    TableTypeAdapter(final Gson gson, final Type rowType, final Type columnType, final Type valueType, final Supplier<? extends Table<R, C, V>> supplier,
+            final Supplier<? extends ImmutableTable.Builder<R, C, V>> builder, final MapKeyCodec<R> rowKeyCodec, final MapKeyCodec<C> columnKeyCodec, final boolean columnarEncoding,
+            final boolean arrayTable, final SizeStatistics statistics) {
         checkNotNull(gson, "gson == null");
         checkNotNull(rowType, "rowType == null");
         checkNotNull(columnType, "columnType == null");
         checkNotNull(valueType, "valueType == null");
-        checkNotNull(supplier, "supplier == null");
+        checkArgument(supplier == null ^ builder == null, "exactly one of supplier or builder must be specified");
 
-        this.gson             = gson;
-        this.rowKeyAdapter    = (TypeAdapter<R>) gson.getAdapter(TypeToken.get(rowType));
-        this.columnKeyAdapter = (TypeAdapter<C>) gson.getAdapter(TypeToken.get(columnType));
-        this.valueAdapter     = (TypeAdapter<V>) gson.getAdapter(TypeToken.get(valueType));
-        this.supplier         = supplier;
+        this.rowKeyAdapter              = new RuntimeTypeAdapter<>(gson, rowType);
+        this.columnKeyAdapter           = new RuntimeTypeAdapter<>(gson, columnType);
+        this.valueAdapter               = new RuntimeTypeAdapter<>(gson, valueType);
+        this.supplier                   = supplier;
+        this.builder                    = builder;
+        this.rowKeyCodec                = rowKeyCodec;
+        this.columnKeyCodec             = columnKeyCodec;
+        this.complexMapKeySerialization = MapKeyCodecs.isComplexMapKeySerialization(gson);
+        this.columnarEncoding           = columnarEncoding;
+        this.arrayTable                 = arrayTable;
+        this.statistics                 = statistics;
     }
 
+    /**
+     * Writes the specified {@code Table} value to the {@code JsonWriter}.
+     * <p>
+     * Cells are streamed row by row directly through the row key, column key, and value adapters. The table is written as
+     * a map of rows to maps of columns to values, following the same rules as Gson's own {@code Map} adapter at both
+     * levels: the array form is only used if complex map key serialization is enabled and at least one (row or column)
+     * key serializes to a JSON array or object.
+     * <p>
+     * A {@code Table} whose first three row keys are written as {@code "rowKeys"}, {@code "columnKeys"}, and
+     * {@code "values"} with complex column keys would be {@link #read(JsonReader) read} as the columnar encoding, so it is
+     * written in the columnar encoding instead.
+     * 
+     * @param out   the specified {@code JsonWriter}
+     * @param table the {@code Table} value to write
+     */
     @Override
     public void write(final JsonWriter out, final Table<R, C, V> table) throws IOException {
         checkNotNull(out, "out == null");
@@ -88,66 +180,368 @@ public final class TableTypeAdapter<R, C, V> extends TypeAdapter<Table<R, C, V>>
             return;
         }
 
-        gson.toJson(table.rowMap(), mapType, out);
+        if (columnarEncoding || resemblesColumns(table)) {
+            writeColumns(out, table);
+            return;
+        }
+
+        final Map<R, Map<C, V>>   rows       = table.rowMap();
+        final Map<C, JsonElement> columnKeys = new HashMap<>(); // column keys repeat in every row
+
+        if (!complexMapKeySerialization) {
+            out.beginObject(); // row map
+            for (final Map.Entry<R, Map<C, V>> row : rows.entrySet()) {
+                out.name(String.valueOf(row.getKey()));
+                writeRow(out, row.getValue(), columnKeys);
+            }
+            out.endObject();
+        } else if (rowKeyCodec != null) { // keys with a codec are never complex
+            out.beginObject(); // row map
+            for (final Map.Entry<R, Map<C, V>> row : rows.entrySet()) {
+                out.name(rowKeyCodec.encode(row.getKey()));
+                writeRow(out, row.getValue(), columnKeys);
+            }
+            out.endObject();
+        } else {
+            final List<JsonElement> keys        = new ArrayList<>(rows.size());
+            boolean                 complexKeys = false;
+
+            for (final R rowKey : rows.keySet()) {
+                final JsonElement element = rowKeyAdapter.toJsonTree(rowKey);
+                complexKeys |= element.isJsonArray() || element.isJsonObject();
+                keys.add(element);
+            }
+
+            final Iterator<JsonElement> names = keys.iterator();
+
+            if (complexKeys) { // see GsonBuilder.enableComplexMapKeySerialization()
+                out.beginArray(); // elements
+                for (final Map<C, V> row : rows.values()) {
+                    out.beginArray(); // element
+                    Streams.write(names.next(), out); // row key
+                    writeRow(out, row, columnKeys);
+                    out.endArray();
+                }
+                out.endArray();
+            } else {
+                out.beginObject(); // row map
+                for (final Map<C, V> row : rows.values()) {
+                    out.name(MapKeyCodecs.keyToString(names.next()));
+                    writeRow(out, row, columnKeys);
+                }
+                out.endObject();
+            }
+        }
+    }
+
+    /*
+     * Returns true if the default encoding of the table could begin with the "rowKeys", "columnKeys", and "values" arrays
+     * of the columnar encoding. Rows are only written as arrays if complex column keys are written as such, and complex
+     * row keys turn the row map itself into an array.
+     */
+    private boolean resemblesColumns(final Table<R, C, V> table) throws IOException {
+        if (!complexMapKeySerialization || columnKeyCodec != null || table.rowKeySet().size() < COLUMNAR.length)
+            return false;
+
+        final Iterator<R> rowKeys = table.rowKeySet().iterator();
+
+        for (final String name : COLUMNAR) {
+            final R rowKey = rowKeys.next();
+
+            if (rowKeyCodec != null) {
+                if (!name.equals(rowKeyCodec.encode(rowKey)))
+                    return false;
+            } else {
+                final JsonElement element = rowKeyAdapter.toJsonTree(rowKey);
+                if (!(element.isJsonPrimitive() || element.isJsonNull()) || !name.equals(MapKeyCodecs.keyToString(element)))
+                    return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void writeColumns(final JsonWriter out, final Table<R, C, V> table) throws IOException {
+        final List<C> columnKeys = new ArrayList<>(table.columnKeySet());
+
+        out.beginObject();
+
+        out.name(ROW_KEYS).beginArray();
+        for (final R rowKey : table.rowKeySet())
+            rowKeyAdapter.write(out, rowKey);
+        out.endArray();
+
+        out.name(COLUMN_KEYS).beginArray();
+        for (final C columnKey : columnKeys)
+            columnKeyAdapter.write(out, columnKey);
+        out.endArray();
+
+        out.name(VALUES).beginArray(); // rows
+        if (table instanceof ArrayTable) {
+            final ArrayTable<R, C, V> array = (ArrayTable<R, C, V>) table;
+            for (int i = 0; i < array.rowKeyList().size(); i++) {
+                out.beginArray(); // row
+                for (int j = 0; j < columnKeys.size(); j++)
+                    writeCell(out, array.at(i, j));
+                out.endArray();
+            }
+        } else
+            for (final Map<C, V> row : table.rowMap().values()) {
+                out.beginArray(); // row
+                for (final C columnKey : columnKeys)
+                    writeCell(out, row.get(columnKey));
+                out.endArray();
+            }
+        out.endArray();
+
+        out.endObject();
+    }
+
+    private void writeCell(final JsonWriter out, final V value) throws IOException {
+        if (value == null) // absent cell
+            out.nullValue();
+        else
+            valueAdapter.write(out, value);
+    }
+
+    private void writeRow(final JsonWriter out, final Map<C, V> row, final Map<C, JsonElement> columnKeys) throws IOException {
+        if (!complexMapKeySerialization) {
+            out.beginObject(); // column map
+            for (final Map.Entry<C, V> cell : row.entrySet()) {
+                out.name(String.valueOf(cell.getKey()));
+                valueAdapter.write(out, cell.getValue());
+            }
+            out.endObject();
+        } else if (columnKeyCodec != null) { // keys with a codec are never complex
+            out.beginObject(); // column map
+            for (final Map.Entry<C, V> cell : row.entrySet()) {
+                out.name(columnKeyCodec.encode(cell.getKey()));
+                valueAdapter.write(out, cell.getValue());
+            }
+            out.endObject();
+        } else {
+            boolean complexKeys = false;
+
+            for (final C columnKey : row.keySet()) {
+                final JsonElement element = columnKeys.computeIfAbsent(columnKey, columnKeyAdapter::toJsonTree);
+                complexKeys |= element.isJsonArray() || element.isJsonObject();
+            }
+
+            if (complexKeys) { // see GsonBuilder.enableComplexMapKeySerialization()
+                out.beginArray(); // elements
+                for (final Map.Entry<C, V> cell : row.entrySet()) {
+                    out.beginArray(); // element
+                    Streams.write(columnKeys.get(cell.getKey()), out); // column key
+                    valueAdapter.write(out, cell.getValue());
+                    out.endArray();
+                }
+                out.endArray();
+            } else {
+                out.beginObject(); // column map
+                for (final Map.Entry<C, V> cell : row.entrySet()) {
+                    out.name(MapKeyCodecs.keyToString(columnKeys.get(cell.getKey())));
+                    valueAdapter.write(out, cell.getValue());
+                }
+                out.endObject();
+            }
+        }
     }
 
+    /**
+     * Returns the next {@code Table} value read from the specified {@code JsonReader}.
+     * <p>
+     * The encoding is detected automatically: a JSON object whose members are {@code "rowKeys"}, {@code "columnKeys"},
+     * and {@code "values"}, in that order and each holding an array, is read as the
+     * {@link TableTypeAdapterFactory#withColumnarEncoding() columnar} encoding, any other JSON object or array as a map
+     * of rows to maps of columns to values.
+     * 
+     * @return the next {@code Table} value read from the specified {@code JsonReader}
+     */
     @Override
     public Table<R, C, V> read(final JsonReader in) throws IOException {
         checkNotNull(in, "in == null");
 
-        final Table<R, C, V> table = supplier.get();
+        final Cells cells = new Cells();
 
         if (in.peek() == JsonToken.NULL) {
             in.nextNull();
             return null;
-        } else if (in.peek() == JsonToken.BEGIN_ARRAY) { // see GsonBuilder.enableComplexMapKeySerialization()
+        }
+
+        final Map<String, C> columnKeys = new HashMap<>(); // column names repeat in every row
+
+        final Table<R, C, V> table;
+
+        if (in.peek() == JsonToken.BEGIN_ARRAY) { // see GsonBuilder.enableComplexMapKeySerialization()
             in.beginArray(); // elements
             while (in.hasNext()) {
                 in.beginArray(); // element
                 final R rowKey = rowKeyAdapter.read(in); // row key
+                readRow(in, cells, rowKey, columnKeys);
+                in.endArray();
+            }
+            in.endArray();
+            table = cells.build();
+        } else {
+            in.beginObject();
+            table = readObject(in, cells, columnKeys);
+            in.endObject();
+        }
 
-                if (in.peek() == JsonToken.BEGIN_ARRAY) { // see GsonBuilder.enableComplexMapKeySerialization()
-                    in.beginArray(); // elements
-                    while (in.hasNext()) {
-                        in.beginArray(); // element
-                        final C colKey = columnKeyAdapter.read(in); // key
-                        final V value  = valueAdapter.read(in);     // value
-                        in.endArray();
-                        table.put(rowKey, colKey, value);
-                    }
-                    in.endArray();
-                } else {
-                    in.beginObject();
-                    final String colKeyJson = "\"" + in.nextName() + "\"";          // column key
-                    final C      colKey     = columnKeyAdapter.fromJson(colKeyJson);
-                    final V      value      = valueAdapter.read(in);
-                    in.endObject();
-                    table.put(rowKey, colKey, value);
-                }
+        if (statistics != null)
+            statistics.record(table.rowKeySet().size(), table.size());
+
+        return table;
+    }
 
+    private void readRow(final JsonReader in, final CellConsumer<R, C, V> consumer, final R rowKey, final Map<String, C> columnKeys) throws IOException {
+        if (in.peek() == JsonToken.BEGIN_ARRAY) { // see GsonBuilder.enableComplexMapKeySerialization()
+            in.beginArray(); // elements
+            while (in.hasNext()) {
+                in.beginArray(); // element
+                final C columnKey = columnKeyAdapter.read(in); // column key
+                final V value     = valueAdapter.read(in);     // value
                 in.endArray();
+                consumer.accept(rowKey, columnKey, value);
             }
             in.endArray();
         } else {
-            in.beginObject(); // row map
+            in.beginObject(); // column map
             while (in.hasNext()) {
+                final C columnKey = nextColumnKey(in, columnKeys); // column key
+                final V value     = valueAdapter.read(in);         // value
+                consumer.accept(rowKey, columnKey, value);
+            }
+            in.endObject(); // end of column map
+        }
+    }
 
-                final String rowKeyJson = "\"" + in.nextName() + "\"";       // row key
-                final R      rowKey     = rowKeyAdapter.fromJson(rowKeyJson);
+    /*
+     * Decodes each distinct column name once per read and returns the same key instance for every row, up to
+     * COLUMN_KEY_CACHE_SIZE distinct names. Row names are unique within a table and are not cached.
+     */
+    private C nextColumnKey(final JsonReader in, final Map<String, C> columnKeys) throws IOException {
+        final String name   = in.nextName();
+        final C      cached = columnKeys.get(name);
 
-                in.beginObject(); // column map
-                while (in.hasNext()) {
-                    final String columnKeyJson = "\"" + in.nextName() + "\"";             // column key
-                    final C      columnKey     = columnKeyAdapter.fromJson(columnKeyJson);
+        if (cached != null)
+            return cached;
 
-                    final V value = valueAdapter.read(in); // value
+        final C columnKey = MapKeyCodecs.decodeKey(name, columnKeyCodec, columnKeyAdapter);
 
-                    table.put(rowKey, columnKey, value);
-                }
-                in.endObject(); // end of column map
+        if (columnKey != null && columnKeys.size() < COLUMN_KEY_CACHE_SIZE)
+            columnKeys.put(name, columnKey);
+
+        return columnKey;
+    }
+
+    /*
+     * Reads the members of a JSON object. The "rowKeys" and "columnKeys" arrays are parsed into trees until the "values"
+     * array confirms the columnar encoding; otherwise they are the first rows of a map of rows, written with complex
+     * column keys.
+     */
+    private Table<R, C, V> readObject(final JsonReader in, final Cells cells, final Map<String, C> columnKeys) throws IOException {
+        final List<JsonElement> members = new ArrayList<>(2);
+
+        String name = null;
+
+        while (in.hasNext()) {
+            name = in.nextName();
+            if (!COLUMNAR[members.size()].equals(name) || in.peek() != JsonToken.BEGIN_ARRAY)
+                break;
+            if (members.size() == 2)
+                return readColumns(in, cells, members.get(0).getAsJsonArray(), members.get(1).getAsJsonArray());
+            members.add(Streams.parse(in));
+            name = null;
+        }
+
+        for (int i = 0; i < members.size(); i++)
+            readRow(new JsonTreeReader(members.get(i)), cells, MapKeyCodecs.decodeKey(COLUMNAR[i], rowKeyCodec, rowKeyAdapter), columnKeys);
+
+        if (name != null) // the next row key has already been consumed
+            readRow(in, cells, MapKeyCodecs.decodeKey(name, rowKeyCodec, rowKeyAdapter), columnKeys);
+
+        while (in.hasNext()) {
+            final R rowKey = MapKeyCodecs.nextKey(in, rowKeyCodec, rowKeyAdapter); // row key
+            readRow(in, cells, rowKey, columnKeys);
+        }
+
+        return cells.build();
+    }
+
+    /*
+     * Reads the remainder of the columnar encoding, positioned at the values array.
+     */
+    private Table<R, C, V> readColumns(final JsonReader in, final Cells cells, final JsonArray rowKeyArray, final JsonArray columnKeyArray) throws IOException {
+        final List<R> rowKeys = new ArrayList<>(rowKeyArray.size());
+        for (final JsonElement rowKey : rowKeyArray)
+            rowKeys.add(rowKeyAdapter.fromJsonTree(rowKey));
+
+        final List<C> columnKeys = new ArrayList<>(columnKeyArray.size());
+        for (final JsonElement columnKey : columnKeyArray)
+            columnKeys.add(columnKeyAdapter.fromJsonTree(columnKey));
+
+        final ArrayTable<R, C, V> array;
+        try {
+            array = arrayTable ? ArrayTable.create(rowKeys, columnKeys) : null;
+        } catch (final IllegalArgumentException e) { // duplicate keys
+            throw new JsonSyntaxException(e.getMessage() + " at path " + in.getPath(), e);
+        }
+
+        in.beginArray(); // rows
+        for (int i = 0; i < rowKeys.size(); i++) {
+            if (!in.hasNext())
+                throw new JsonSyntaxException("Expected " + rowKeys.size() + " rows but was " + i + " at path " + in.getPath());
+            in.beginArray(); // row
+            for (int j = 0; j < columnKeys.size(); j++) {
+                if (!in.hasNext())
+                    throw new JsonSyntaxException("Expected " + columnKeys.size() + " columns but was " + j + " at path " + in.getPath());
+                if (in.peek() == JsonToken.NULL) // absent cell
+                    in.nextNull();
+                else if (array != null)
+                    array.set(i, j, valueAdapter.read(in));
+                else
+                    cells.accept(rowKeys.get(i), columnKeys.get(j), valueAdapter.read(in));
             }
-            in.endObject(); // end of row map
+            in.endArray();
         }
-        return table;
+        in.endArray();
+
+        return array != null ? array : cells.build();
+    }
+
+    @FunctionalInterface
+    private interface CellConsumer<R, C, V> {
+        void accept(R rowKey, C columnKey, V value);
     }
-}
\ No newline at end of file
+
+    /*
+     * The Table, ImmutableTable.Builder, or ArrayTable staging table a Table value is read into.
+     */
+    private final class Cells implements CellConsumer<R, C, V> {
+
+        private final Table<R, C, V>                  mutable;
+        private final ImmutableTable.Builder<R, C, V> immutable;
+
+        private Cells() {
+            this.mutable   = supplier != null ? supplier.get() : null;
+            this.immutable = builder != null ? builder.get() : null;
+        }
+
+        @Override
+        public void accept(final R rowKey, final C columnKey, final V value) {
+            if (mutable == null)
+                immutable.put(rowKey, columnKey, value);
+            else if (value != null || !arrayTable) // absent ArrayTable cells are written as nulls
+                mutable.put(rowKey, columnKey, value);
+        }
+
+        private Table<R, C, V> build() {
+            if (mutable == null)
+                return immutable.build();
+            else
+                return arrayTable ? ArrayTable.create(mutable) : mutable;
+        }
+    }
+
+}
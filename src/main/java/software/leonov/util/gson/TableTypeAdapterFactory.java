@@ -4,12 +4,23 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
 
+import com.google.common.collect.ArrayTable;
 import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.ImmutableTable;
 import com.google.common.collect.RowSortedTable;
 import com.google.common.collect.Table;
+import com.google.common.collect.Tables;
 import com.google.common.collect.TreeBasedTable;
 import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import com.google.gson.TypeAdapter;
 import com.google.gson.TypeAdapterFactory;
 import com.google.gson.reflect.TypeToken;
@@ -21,17 +32,89 @@ import com.google.gson.reflect.TypeToken;
  * <ul>
  * <li>{@link HashBasedTable} (default for deserialization)</li>
  * <li>{@link TreeBasedTable}</li>
+ * <li>{@link ImmutableTable}</li>
+ * <li>{@link ArrayTable}</li>
  * </ul>
  * <p>
  * <b>Serialization/Deserialization Behavior:</b>
  * <p>
  * All {@code Table} implementations can be serialized to JSON. Attempting to deserialize unsupported {@code Table}
  * implementations will result in an {@link IllegalArgumentException}.
+ * <p>
+ * Immutable {@code Table}s are built directly by their {@link ImmutableTable.Builder builders}, without an intermediate
+ * mutable copy. They do not permit {@code null} keys or values.
+ * <p>
+ * {@code ArrayTable}s read from the columnar encoding (see below) are filled in directly; otherwise the cells are
+ * collected first, in order to determine the row and column keys.
+ * <p>
+ * <b>Adaptive Sizing:</b>
+ * <p>
+ * By default deserialized {@code Table}s are created empty and grow as cells are added. A factory returned by
+ * {@link #withAdaptiveSizing()} records the {@link SizeStatistics size} of every {@code Table} read by each adapter, and
+ * pre-sizes the {@code HashBasedTable}s it creates thereafter to the mean number of rows and cells per row seen so far.
+ * <p>
+ * <b>Columnar Encoding:</b>
+ * <p>
+ * By default {@code Table}s are written as maps of rows to maps of columns to values, repeating each column key in every
+ * row. A factory returned by {@link #withColumnarEncoding()} writes {@code Table}s as an array of row keys, an array of
+ * column keys, and a matrix of values in row-major order, which is considerably more compact for dense tables: <pre>
+ * {"rowKeys": [r1, r2], "columnKeys": [c1, c2], "values": [[v11, v12], [v21, null]]}
+ * </pre> Absent cells are written as {@code null}. Both encodings are always accepted when reading. A JSON object is
+ * read as the columnar encoding only if its members are {@code "rowKeys"}, {@code "columnKeys"}, and {@code "values"},
+ * in that order and each holding an array, so a {@code Table} written in the default encoding is misread only if its
+ * first three row keys are these strings and its column keys are
+ * {@link GsonBuilder#enableComplexMapKeySerialization() complex}.
  *
  * @author Zhenya Leonov
  */
 public final class TableTypeAdapterFactory implements TypeAdapterFactory {
 
+    private final boolean                                     adaptiveSizing;
+    private final boolean                                     columnarEncoding;
+    private final ConcurrentMap<TypeToken<?>, SizeStatistics> statistics = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new {@code TableTypeAdapterFactory}.
+     */
+    public TableTypeAdapterFactory() {
+        this(false, false);
+    }
+
+    private TableTypeAdapterFactory(final boolean adaptiveSizing, final boolean columnarEncoding) {
+        this.adaptiveSizing   = adaptiveSizing;
+        this.columnarEncoding = columnarEncoding;
+    }
+
+    /**
+     * Returns a new {@code TableTypeAdapterFactory} which pre-sizes deserialized {@code Table}s based on the sizes
+     * of previously read values of the same type.
+     *
+     * @return a new {@code TableTypeAdapterFactory} which pre-sizes deserialized {@code Table}s
+     */
+    public TableTypeAdapterFactory withAdaptiveSizing() {
+        return new TableTypeAdapterFactory(true, columnarEncoding);
+    }
+
+    /**
+     * Returns a new {@code TableTypeAdapterFactory} which writes {@code Table}s in the columnar encoding: an array of row
+     * keys, an array of column keys, and a matrix of values in row-major order.
+     *
+     * @return a new {@code TableTypeAdapterFactory} which writes {@code Table}s in the columnar encoding
+     */
+    public TableTypeAdapterFactory withColumnarEncoding() {
+        return new TableTypeAdapterFactory(adaptiveSizing, true);
+    }
+
+    /**
+     * Returns an unmodifiable view of the {@link SizeStatistics} recorded for each {@code Table} type deserialized so
+     * far. Always empty unless this factory was created by {@link #withAdaptiveSizing()}.
+     *
+     * @return an unmodifiable view of the {@code SizeStatistics} recorded for each {@code Table} type
+     */
+    public Map<TypeToken<?>, SizeStatistics> getStatistics() {
+        return Collections.unmodifiableMap(statistics);
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public <T> TypeAdapter<T> create(final Gson gson, final TypeToken<T> typeToken) {
@@ -59,16 +142,61 @@ public final class TableTypeAdapterFactory implements TypeAdapterFactory {
             }
 
             if (clazz.equals(Table.class) || clazz.equals(HashBasedTable.class))
-                return (TypeAdapter<T>) new TableTypeAdapter<>(gson, rowKeyType, columnKeyType, valueType, () -> HashBasedTable.create());
+                return (TypeAdapter<T>) newAdapter(gson, typeToken, rowKeyType, columnKeyType, valueType, () -> HashBasedTable.create(), (rows, cellsPerRow) -> HashBasedTable.create(rows, cellsPerRow), false);
             else if (clazz.equals(RowSortedTable.class) || clazz.equals(TreeBasedTable.class))
-                return (TypeAdapter<T>) new TableTypeAdapter<>(gson, rowKeyType, columnKeyType, valueType, () -> TreeBasedTable.create());
+                return (TypeAdapter<T>) newAdapter(gson, typeToken, rowKeyType, columnKeyType, valueType, () -> TreeBasedTable.create(), null, false);
+            else if (clazz.equals(ImmutableTable.class))
+                return (TypeAdapter<T>) newImmutableAdapter(gson, typeToken, rowKeyType, columnKeyType, valueType, () -> ImmutableTable.builder());
+            else if (clazz.equals(ArrayTable.class)) // cells not read from the columnar encoding are staged in insertion order
+                return (TypeAdapter<T>) newAdapter(gson, typeToken, rowKeyType, columnKeyType, valueType, () -> Tables.newCustomTable(new LinkedHashMap<>(), LinkedHashMap::new), null, true);
             else
+                // @formatter:off
                 return (TypeAdapter<T>) new TableTypeAdapter<>(gson, rowKeyType, columnKeyType, valueType, () -> {
-                    throw new IllegalArgumentException(String.format("%s is not supported; try one of [%s, %s]", clazz.getSimpleName(), HashBasedTable.class.getSimpleName(), TreeBasedTable.class.getSimpleName()));
-                });
-
+                    throw new IllegalArgumentException(String.format("%s is not supported; try one of [%s, %s, %s, %s]", clazz.getSimpleName(), HashBasedTable.class.getSimpleName(), TreeBasedTable.class.getSimpleName(),
+                            ImmutableTable.class.getSimpleName(), ArrayTable.class.getSimpleName()));
+                }, null,
+                (MapKeyCodec<Object>) MapKeyCodecs.forType(gson, rowKeyType),
+                (MapKeyCodec<Object>) MapKeyCodecs.forType(gson, columnKeyType),
+                columnarEncoding, false, null);
+                // @formatter:on
         }
 
         return null;
     }
-}
\ No newline at end of file
+
+    /*
+     * The sized factory is null for implementations which cannot be pre-sized, including ArrayTables which are sized by
+     * their keys.
+     */
+    @SuppressWarnings("unchecked")
+    private <R, C, V> TypeAdapter<Table<R, C, V>> newAdapter(final Gson gson, final TypeToken<?> typeToken, final Type rowKeyType, final Type columnKeyType, final Type valueType,
+            final Supplier<Table<R, C, V>> supplier, final BiFunction<Integer, Integer, Table<R, C, V>> sized, final boolean arrayTable) {
+        final SizeStatistics stats = adaptiveSizing ? statistics.computeIfAbsent(typeToken, type -> new SizeStatistics()) : null;
+
+        final Supplier<Table<R, C, V>> adaptive = stats == null || sized == null ? supplier : () -> stats.getReadCount() == 0 ? supplier.get() : sized.apply(stats.getExpectedKeys(), stats.getExpectedValuesPerKey());
+
+        // @formatter:off
+        return new TableTypeAdapter<>(gson, rowKeyType, columnKeyType, valueType, adaptive, null,
+                (MapKeyCodec<R>) MapKeyCodecs.forType(gson, rowKeyType),
+                (MapKeyCodec<C>) MapKeyCodecs.forType(gson, columnKeyType),
+                columnarEncoding, arrayTable, stats);
+        // @formatter:on
+    }
+
+    /*
+     * Guava does not offer pre-sized ImmutableTable builders; statistics are recorded for monitoring only.
+     */
+    @SuppressWarnings("unchecked")
+    private <R, C, V> TypeAdapter<Table<R, C, V>> newImmutableAdapter(final Gson gson, final TypeToken<?> typeToken, final Type rowKeyType, final Type columnKeyType, final Type valueType,
+            final Supplier<ImmutableTable.Builder<R, C, V>> builder) {
+        final SizeStatistics stats = adaptiveSizing ? statistics.computeIfAbsent(typeToken, type -> new SizeStatistics()) : null;
+
+        // @formatter:off
+        return new TableTypeAdapter<>(gson, rowKeyType, columnKeyType, valueType, null, builder,
+                (MapKeyCodec<R>) MapKeyCodecs.forType(gson, rowKeyType),
+                (MapKeyCodec<C>) MapKeyCodecs.forType(gson, columnKeyType),
+                columnarEncoding, false, stats);
+        // @formatter:on
+    }
+
+}
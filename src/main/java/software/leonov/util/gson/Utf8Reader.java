@@ -0,0 +1,292 @@
+package software.leonov.util.gson;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.google.common.collect.Iterators;
+
+/**
+ * A {@link Reader} which decodes {@link java.nio.charset.StandardCharsets#UTF_8 UTF-8} encoded bytes held in one or more
+ * {@link ByteBuffer}s directly into the caller's {@code char} array.
+ * <p>
+ * Unlike an {@link java.io.InputStreamReader} there is no intermediate {@code CharsetDecoder}, byte buffer, or
+ * {@code char} buffer: runs of ASCII bytes are widened in a tight loop and only multi-byte sequences are decoded. This
+ * reader is intended to back a {@code JsonReader}, which does its own buffering, so there is no need to wrap it in a
+ * {@code BufferedReader}.
+ * <p>
+ * Malformed input is replaced with {@code U+FFFD}, as by {@code InputStreamReader}. The positions of the specified
+ * {@code ByteBuffer}s are not modified.
+ *
+ * @author Zhenya Leonov
+ */
+final class Utf8Reader extends Reader {
+
+    private static final char REPLACEMENT = '\uFFFD';
+
+    /*
+     * The size of the regions of a file mapped at a time; a single MappedByteBuffer cannot exceed 2 GB.
+     */
+    static final long WINDOW_SIZE = 1 << 30;
+
+    private final Iterator<ByteBuffer> buffers;
+    private final Closeable            resource;
+
+    private ByteBuffer buffer;
+    private byte[]     array;   // the backing array of a heap buffer, or null
+    private int        offset;  // the array offset of the buffer
+    private int        limit;
+    private int        position;
+    private char       pending; // the low surrogate of a supplementary character which did not fit in the last read
+
+    Utf8Reader(final ByteBuffer buffer) {
+        this(Iterators.singletonIterator(checkNotNull(buffer, "buffer == null")), null);
+    }
+
+    private Utf8Reader(final Iterator<ByteBuffer> buffers, final Closeable resource) {
+        this.buffers  = buffers;
+        this.resource = resource;
+    }
+
+    /**
+     * Returns a new {@code Utf8Reader} which reads the specified file through read-only memory mappings of at most
+     * {@code windowSize} bytes each. No region is mapped until it is read. Closing the reader closes the file.
+     */
+    static Utf8Reader map(final Path path, final long windowSize) throws IOException {
+        checkNotNull(path, "path == null");
+        checkArgument(windowSize >= 4 && windowSize <= Integer.MAX_VALUE, "windowSize must be between 4 and Integer.MAX_VALUE"); // room for the longest sequence
+
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        try {
+            return new Utf8Reader(new Windows(channel, channel.size(), windowSize), channel);
+        } catch (final IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public int read(final char[] cbuf, final int off, final int len) throws IOException {
+        checkNotNull(cbuf, "cbuf == null");
+        checkPositionIndexes(off, off + len, cbuf.length);
+
+        if (len == 0)
+            return 0;
+
+        int n = 0;
+
+        if (pending != 0) {
+            cbuf[off + n++] = pending;
+            pending         = 0;
+        }
+
+        while (n < len && (position < limit || advance())) {
+            n += ascii(cbuf, off + n, len - n);
+
+            if (n == len || position == limit)
+                continue;
+
+            final int cp = decode(buffer.get(position) & 0xFF);
+
+            if (cp < 0x10000)
+                cbuf[off + n++] = (char) cp;
+            else {
+                cbuf[off + n++] = Character.highSurrogate(cp);
+                if (n < len)
+                    cbuf[off + n++] = Character.lowSurrogate(cp);
+                else
+                    pending = Character.lowSurrogate(cp);
+            }
+        }
+
+        return n == 0 ? -1 : n;
+    }
+
+    /*
+     * Moves on to the next non-empty buffer, returning false if there are none left.
+     */
+    private boolean advance() throws IOException {
+        while (buffers.hasNext()) {
+            final ByteBuffer next;
+            try {
+                next = buffers.next();
+            } catch (final UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            buffer   = next.duplicate();
+            array    = next.hasArray() ? next.array() : null;
+            offset   = next.hasArray() ? next.arrayOffset() : 0;
+            limit    = next.limit();
+            position = next.position();
+
+            if (position < limit)
+                return true;
+        }
+        return false;
+    }
+
+    /*
+     * Widens the run of ASCII bytes starting at the current position, up to len bytes, into cbuf and advances past it,
+     * returning the number of bytes copied.
+     */
+    private int ascii(final char[] cbuf, final int off, final int len) {
+        final int end = position + Math.min(len, limit - position);
+
+        int p = position;
+        int i = off;
+
+        if (array != null)
+            for (byte b; p < end && (b = array[offset + p]) >= 0; p++)
+                cbuf[i++] = (char) b;
+        else
+            for (byte b; p < end && (b = buffer.get(p)) >= 0; p++)
+                cbuf[i++] = (char) b;
+
+        position = p;
+        return i - off;
+    }
+
+    /*
+     * Decodes the multi-byte sequence starting at the current position and advances past it, or past the longest valid
+     * prefix of a malformed sequence, returning the replacement character in the latter case.
+     */
+    private int decode(final int b0) {
+        final int length = sequenceLength(b0);
+        final int min;
+        int       cp;
+
+        if (length == 2) {
+            cp  = b0 & 0x1F;
+            min = 0x80;
+        } else if (length == 3) {
+            cp  = b0 & 0x0F;
+            min = b0 == 0xE0 ? 0xA0 : 0x80; // overlong
+        } else if (length == 4) {
+            cp  = b0 & 0x07;
+            min = b0 == 0xF0 ? 0x90 : 0x80; // overlong
+        } else {
+            position++;
+            return REPLACEMENT;
+        }
+
+        final int max = b0 == 0xF4 ? 0x8F : 0xBF; // above U+10FFFF
+
+        position++;
+
+        for (int i = 1; i < length; i++) {
+            if (position >= limit)
+                return REPLACEMENT;
+
+            final int b = buffer.get(position) & 0xFF;
+
+            if (b < (i == 1 ? min : 0x80) || b > (i == 1 ? max : 0xBF))
+                return REPLACEMENT;
+
+            cp = cp << 6 | b & 0x3F;
+            position++;
+        }
+
+        return cp >= Character.MIN_SURROGATE && cp <= Character.MAX_SURROGATE ? REPLACEMENT : cp; // a single replacement, as by the JDK decoder
+    }
+
+    /*
+     * Returns the length of the sequence introduced by the specified lead byte, or 0 if it cannot start a sequence.
+     */
+    private static int sequenceLength(final int b0) {
+        if (b0 < 0x80)
+            return 1;
+        else if (b0 >= 0xC2 && b0 <= 0xDF)
+            return 2;
+        else if (b0 >= 0xE0 && b0 <= 0xEF)
+            return 3;
+        else if (b0 >= 0xF0 && b0 <= 0xF4)
+            return 4;
+        else
+            return 0;
+    }
+
+    @Override
+    public boolean ready() {
+        return pending != 0 || position < limit;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (resource != null)
+            resource.close();
+    }
+
+    /*
+     * Maps successive regions of a file. Each region except the last ends before a multi-byte sequence which would
+     * otherwise be cut in two, and the next region starts with that sequence.
+     */
+    private static final class Windows implements Iterator<ByteBuffer> {
+
+        private final FileChannel channel;
+        private final long        size;
+        private final long        windowSize;
+        private long              start;
+
+        Windows(final FileChannel channel, final long size, final long windowSize) {
+            this.channel    = channel;
+            this.size       = size;
+            this.windowSize = windowSize;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return start < size;
+        }
+
+        @Override
+        public ByteBuffer next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            final ByteBuffer window;
+            try {
+                window = channel.map(MapMode.READ_ONLY, start, Math.min(windowSize, size - start));
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            if (start + window.limit() < size)
+                window.limit(boundary(window));
+
+            start += window.limit();
+            return window;
+        }
+
+        /*
+         * Returns the index after the last complete sequence in the window. Only the last three bytes are examined;
+         * malformed input is left to the decoder.
+         */
+        private static int boundary(final ByteBuffer window) {
+            final int end = window.limit();
+
+            for (int i = end - 1; i >= Math.max(0, end - 3); i--) {
+                final int b = window.get(i) & 0xFF;
+
+                if ((b & 0xC0) != 0x80) // not a continuation byte
+                    return i + sequenceLength(b) > end ? i : end;
+            }
+            return end;
+        }
+
+    }
+
+}
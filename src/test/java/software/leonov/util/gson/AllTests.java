@@ -11,7 +11,15 @@ import org.junit.platform.suite.api.Suite;
     TestTable.class,
     TestGsonHelper.class,
     TestErrorHandling.class,
-    TestCollectionVariations.class
+    TestCollectionVariations.class,
+    TestMapKeyCodecs.class,
+    TestAdaptiveSizing.class,
+    TestGuavaTypeAdapterFactory.class,
+    TestUtf8Reader.class,
+    TestJsonLines.class,
+    TestJsonArrays.class,
+    TestJsonSelector.class,
+    TestLazyJsonElement.class
 })
 class AllTests {
 }
\ No newline at end of file
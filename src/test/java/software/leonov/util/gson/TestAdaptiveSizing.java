@@ -0,0 +1,127 @@
+package software.leonov.util.gson;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Type;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableMultiset;
+import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Multiset;
+import com.google.common.collect.Table;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+
+class TestAdaptiveSizing {
+
+    @Test
+    void test_statistics_are_empty_by_default() {
+        final MultimapTypeAdapterFactory factory = new MultimapTypeAdapterFactory();
+
+        final Gson gson = new GsonBuilder().registerTypeAdapterFactory(factory).create();
+
+        final Type type = new TypeToken<Multimap<String, Integer>>() {
+        }.getType();
+
+        gson.fromJson("{\"a\":[1,2]}", type);
+
+        assertTrue(factory.getStatistics().isEmpty());
+    }
+
+    @Test
+    void test_Multimap_statistics() {
+        final MultimapTypeAdapterFactory factory = new MultimapTypeAdapterFactory().withAdaptiveSizing();
+
+        final Gson gson = new GsonBuilder().registerTypeAdapterFactory(factory).create();
+
+        final TypeToken<ArrayListMultimap<String, Integer>> type = new TypeToken<ArrayListMultimap<String, Integer>>() {
+        };
+
+        final Multimap<String, Integer> small = ImmutableMultimap.of("a", 1, "a", 2, "b", 3);
+        final Multimap<String, Integer> large = ImmutableMultimap.of("a", 1, "b", 2, "c", 3, "d", 4, "d", 5);
+
+        assertEquals(small, gson.fromJson(gson.toJson(small), type.getType()));
+        assertEquals(large, gson.fromJson(gson.toJson(large), type.getType()));
+        assertEquals(large, gson.fromJson(gson.toJson(large), type.getType())); // created pre-sized
+
+        final SizeStatistics stats = factory.getStatistics().get(type);
+
+        assertEquals(3, stats.getReadCount());
+        assertEquals(10, stats.getTotalKeys());
+        assertEquals(13, stats.getTotalValues());
+        assertEquals(4, stats.getExpectedKeys());
+        assertEquals(2, stats.getExpectedValuesPerKey());
+    }
+
+    @Test
+    void test_Multiset_statistics() {
+        final MultisetTypeAdapterFactory factory = new MultisetTypeAdapterFactory().withAdaptiveSizing();
+
+        final Gson gson = new GsonBuilder().registerTypeAdapterFactory(factory).create();
+
+        final TypeToken<HashMultiset<String>> type = new TypeToken<HashMultiset<String>>() {
+        };
+
+        final Multiset<String> expected = ImmutableMultiset.of("a", "a", "a", "b");
+
+        assertEquals(expected, gson.fromJson(gson.toJson(expected), type.getType()));
+        assertEquals(expected, gson.fromJson(gson.toJson(expected), type.getType()));
+
+        final SizeStatistics stats = factory.getStatistics().get(type);
+
+        assertEquals(2, stats.getReadCount());
+        assertEquals(2, stats.getExpectedKeys());
+        assertEquals(2, stats.getExpectedValuesPerKey());
+    }
+
+    @Test
+    void test_Table_statistics() {
+        final TableTypeAdapterFactory factory = new TableTypeAdapterFactory().withAdaptiveSizing();
+
+        final Gson gson = new GsonBuilder().registerTypeAdapterFactory(factory).create();
+
+        final TypeToken<HashBasedTable<String, String, Integer>> type = new TypeToken<HashBasedTable<String, String, Integer>>() {
+        };
+
+        final Table<String, String, Integer> expected = ImmutableTable.<String, String, Integer>builder()
+                .put("r1", "c1", 1)
+                .put("r1", "c2", 2)
+                .put("r1", "c3", 3)
+                .put("r2", "c1", 4)
+                .build();
+
+        assertEquals(expected, gson.fromJson(gson.toJson(expected), type.getType()));
+        assertEquals(expected, gson.fromJson(gson.toJson(expected), type.getType()));
+
+        final SizeStatistics stats = factory.getStatistics().get(type);
+
+        assertEquals(2, stats.getReadCount());
+        assertEquals(2, stats.getExpectedKeys());
+        assertEquals(2, stats.getExpectedValuesPerKey());
+    }
+
+    @Test
+    void test_null_values_are_not_recorded() {
+        final MultimapTypeAdapterFactory factory = new MultimapTypeAdapterFactory().withAdaptiveSizing();
+
+        final Gson gson = new GsonBuilder().registerTypeAdapterFactory(factory).serializeNulls().create();
+
+        final TypeToken<Multimap<String, Integer>> type = new TypeToken<Multimap<String, Integer>>() {
+        };
+
+        gson.fromJson("null", type.getType());
+        gson.fromJson("{}", type.getType());
+
+        assertEquals(1, factory.getStatistics().get(type).getReadCount());
+        assertEquals(0, factory.getStatistics().get(type).getExpectedKeys());
+    }
+
+}
@@ -1,23 +1,64 @@
 package software.leonov.util.gson;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Test;
-
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableMultiset;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Multiset;
+import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonNull;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.internal.bind.JsonTreeReader;
+import com.google.gson.reflect.TypeToken;
 import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
+
+import software.leonov.util.gson.GsonHelper.Profile;
 
 class TestGsonHelper {
 
@@ -221,6 +262,35 @@ class TestGsonHelper {
         assertEquals(original, copied);
     }
 
+    @Test
+    void testCopyNumberLexemes() throws IOException {
+        final String json = "[1e2,-0.0,1.50,12345678901234567890.123456789012345678901,-7E-3]";
+
+        final StringWriter lexemes = new StringWriter();
+        GsonHelper.copy(new JsonReader(new StringReader(json)), new JsonWriter(lexemes), true);
+        assertEquals(json, lexemes.toString());
+
+        final StringWriter normalized = new StringWriter();
+        GsonHelper.copy(new JsonReader(new StringReader(json)), new JsonWriter(normalized));
+        assertEquals("[1E+2,0.0,1.50,12345678901234567890.123456789012345678901,-0.007]", normalized.toString());
+    }
+
+    @Test
+    void testCopyNumberLexemesNonFinite() throws IOException {
+        final JsonArray array = new JsonArray();
+        array.add(Double.NaN);
+        array.add(Double.NEGATIVE_INFINITY);
+
+        assertThrows(IllegalArgumentException.class, () -> GsonHelper.copy(new JsonTreeReader(array), new JsonWriter(new StringWriter()), true));
+
+        final StringWriter stringWriter = new StringWriter();
+        final JsonWriter   writer       = new JsonWriter(stringWriter);
+        writer.setLenient(true);
+
+        GsonHelper.copy(new JsonTreeReader(array), writer, true);
+        assertEquals("[NaN,-Infinity]", stringWriter.toString());
+    }
+
     @Test
     void testWriteElement() throws IOException {
         final JsonObject element = new JsonObject();
@@ -237,6 +307,39 @@ class TestGsonHelper {
         assertEquals(element, parsed);
     }
 
+    @Test
+    void testWriteElementMatchesGson() throws IOException {
+        final JsonElement element = GsonHelper.parseJson("{\"a\":[1,2.50,1e2,true,null,\"<x>\",{},[]],\"b\":{\"c\":{\"d\":-0.0}},\"e\":null}");
+        ((JsonObject) element).addProperty("f", 1.0E10);
+        ((JsonObject) element).addProperty("g", Double.NaN);
+
+        final StringWriter stringWriter = new StringWriter();
+        final JsonWriter   writer       = new JsonWriter(stringWriter);
+        writer.setLenient(true);
+
+        GsonHelper.writeElement(element, writer);
+
+        assertEquals(new GsonBuilder().serializeNulls().disableHtmlEscaping().serializeSpecialFloatingPointValues().create().toJson(element), stringWriter.toString());
+        assertEquals(GsonHelper.getGson().toJson(element), GsonHelper.prettify(element));
+    }
+
+    @Test
+    void testWriteElementDeeplyNested() throws IOException {
+        final int depth = 100_000;
+
+        JsonElement element = new JsonPrimitive(depth);
+        for (int i = 0; i < depth; i++) {
+            final JsonArray array = new JsonArray();
+            array.add(element);
+            element = array;
+        }
+
+        final StringWriter stringWriter = new StringWriter();
+        GsonHelper.writeElement(element, new JsonWriter(stringWriter));
+
+        assertEquals(Strings.repeat("[", depth) + depth + Strings.repeat("]", depth), stringWriter.toString());
+    }
+
     @Test
     void testPrettifyElement() {
         final JsonObject element = new JsonObject();
@@ -255,6 +358,33 @@ class TestGsonHelper {
         assertEquals("{\n  \"key\": \"value\"\n}", result);
     }
 
+    @Test
+    void testPrettifyStreaming() {
+        final String json = "{\"a\":[1e2,-0.0,1.50,12345678901234567890.1],\"b\":{\"c\":null,\"d\":\"<x>\"},\"e\":[],\"f\":{}}";
+
+        final StringWriter writer = new StringWriter();
+        GsonHelper.prettify(new StringReader(json), writer);
+
+        assertEquals(GsonHelper.prettify(GsonHelper.parseJson(json)), writer.toString());
+        assertTrue(writer.toString().contains("1e2"));
+        assertEquals(json, GsonHelper.minify(writer.toString()));
+    }
+
+    @Test
+    void testMinify() {
+        assertEquals("{\"key\":[1,2.0,\"a b\"]}", GsonHelper.minify(" {\n  \"key\" : [ 1 , 2.0, \"a b\" ]\n} "));
+        assertEquals("null", GsonHelper.minify(""));
+        assertEquals("\"value\"", GsonHelper.minify("'value'")); // lenient, as by parseJson(Reader)
+    }
+
+    @Test
+    void testMinifyMalformed() {
+        assertThrows(JsonSyntaxException.class, () -> GsonHelper.minify("{\"key\":"));
+        assertThrows(JsonSyntaxException.class, () -> GsonHelper.minify("[1,2]]"));
+        assertThrows(JsonSyntaxException.class, () -> GsonHelper.minify("[1] [2]"));
+        assertThrows(JsonSyntaxException.class, () -> GsonHelper.prettify("{\"key\" 1}"));
+    }
+
     @Test
     void testGetParser() {
         final JsonParser  parser = GsonHelper.getParser();
@@ -287,4 +417,222 @@ class TestGsonHelper {
         final String result = stringWriter.toString();
         assertEquals("{\n  \"key\": \"value\"\n}", result);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testReadMultimapEntries() throws IOException {
+        final JsonReader                    reader = new JsonReader(new StringReader("{\"a\":[1,2],\"b\":[3]}"));
+        final ListMultimap<String, Integer> result = ArrayListMultimap.create();
+
+        GsonHelper.readMultimapEntries(reader, String.class, Integer.class, result::put);
+
+        assertEquals(ImmutableListMultimap.of("a", 1, "a", 2, "b", 3), result);
+    }
+
+    @Test
+    void testReadMultimapEntriesComplexKeys() throws IOException {
+        final Type keyType = new TypeToken<List<String>>() {
+        }.getType();
+
+        final ListMultimap<List<String>, Integer> expected = ImmutableListMultimap.of(ImmutableList.of("a", "b"), 1, ImmutableList.of("c"), 2, ImmutableList.of("c"), 3);
+
+        final String text = GsonHelper.getGson().toJson(expected, TypeToken.getParameterized(ListMultimap.class, keyType, Integer.class).getType());
+
+        final ListMultimap<List<String>, Integer> result = ArrayListMultimap.create();
+
+        GsonHelper.readMultimapEntries(new JsonReader(new StringReader(text)), keyType, Integer.class, result::put);
+
+        assertEquals(expected, result);
+    }
+
+    @Test
+    void testReadMultimapEntriesWithNull() throws IOException {
+        final JsonReader reader = new JsonReader(new StringReader("null"));
+
+        GsonHelper.readMultimapEntries(reader, String.class, Integer.class, (key, value) -> fail());
+
+        assertEquals(JsonToken.END_DOCUMENT, reader.peek());
+    }
+
+    @Test
+    void testMergeMultisets() {
+        final List<Reader> readers = new ArrayList<>();
+        for (int i = 0; i < 100; i++)
+            readers.add(new StringReader(i % 2 == 0 ? "[[\"apple\",3],[\"pear\",1]]" : "{\"apple\":1,\"plum\":2}"));
+        readers.add(new StringReader("null"));
+
+        final Multiset<String> result = GsonHelper.mergeMultisets(String.class, readers);
+
+        assertEquals(ImmutableMultiset.builder().addCopies("apple", 200).addCopies("pear", 50).addCopies("plum", 100).build(), result);
+    }
+
+    @Test
+    void testMergeMultisetFiles(@TempDir final Path directory) throws IOException {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Path> paths = new ArrayList<>();
+            for (int i = 0; i < 10; i++)
+                paths.add(Files.write(directory.resolve(i + ".json"), ("[[" + i + ",2],[42,1]]").getBytes(StandardCharsets.UTF_8)));
+
+            final Multiset<Integer> result = GsonHelper.mergeMultisetFiles(GsonHelper.getGson(), Integer.class, paths, executor);
+
+            assertEquals(30, result.size());
+            assertEquals(10, result.count(42));
+            assertEquals(2, result.count(7));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testMergeMultisetsMalformed() {
+        assertThrows(JsonSyntaxException.class, () -> GsonHelper.mergeMultisets(String.class, ImmutableList.of(new StringReader("[[\"apple\",3]"), new StringReader("[[\"pear\",1]]"))));
+        assertThrows(JsonSyntaxException.class, () -> GsonHelper.mergeMultisets(String.class, ImmutableList.of(new StringReader("[[\"apple\",\"three\"]]"))));
+        assertThrows(JsonIOException.class, () -> GsonHelper.mergeMultisetFiles(String.class, ImmutableList.of(Paths.get("does-not-exist.json"))));
+    }
+
+    static class WarmPayload {
+        Multiset<String>              tags;
+        ListMultimap<String, Integer> scores;
+    }
+
+    @Test
+    void testPrewarm() {
+        final Type type = new TypeToken<ListMultimap<String, WarmPayload>>() {
+        }.getType();
+
+        final Map<Type, Duration> timings = GsonHelper.prewarm(WarmPayload.class, type, WarmPayload.class);
+
+        assertEquals(ImmutableList.of(WarmPayload.class, type), ImmutableList.copyOf(timings.keySet()));
+        assertFalse(timings.get(type).isNegative());
+    }
+
+    @Test
+    void testPrewarmAsync() {
+        final Map<Type, Duration> timings = GsonHelper.prewarmAsync(WarmPayload.class).join();
+
+        assertEquals(ImmutableList.of(WarmPayload.class), ImmutableList.copyOf(timings.keySet()));
+    }
+
+    @Test
+    void testPrewarmPackage() throws IOException {
+        final Map<Type, Duration> timings = GsonHelper.prewarmPackage(GsonHelper.getGson(), "software.leonov.util.gson", getClass().getClassLoader(), clazz -> clazz.getSimpleName().startsWith("Warm"));
+
+        assertEquals(ImmutableList.of(WarmPayload.class), ImmutableList.copyOf(timings.keySet()));
+    }
+
+    @Test
+    void testProfiles() throws IOException {
+        assertSame(GsonHelper.getGson(), GsonHelper.getGson(Profile.PRETTY));
+        assertSame(GsonHelper.getGson(Profile.COMPACT), GsonHelper.getGson(Profile.COMPACT));
+
+        final Multiset<String> multiset = ImmutableMultiset.of("a", "a");
+
+        assertEquals("{\"a\":2,\"b\":null}", GsonHelper.getGson(Profile.COMPACT).toJson(ImmutableMap.of("a", 2, "b", JsonNull.INSTANCE)));
+        assertEquals("[[\"a\",2]]", GsonHelper.getGson(Profile.COMPACT).toJson(multiset, Multiset.class));
+
+        final StringWriter writer = new StringWriter();
+        GsonHelper.newJsonWriter(writer, Profile.COMPACT).beginArray().value(1).value(2).endArray().flush();
+
+        assertEquals("[1,2]", writer.toString());
+    }
+
+    @Test
+    void testLenientProfile() throws IOException {
+        final JsonReader reader = GsonHelper.newJsonReader(new StringReader("{a:'b'}"), Profile.LENIENT);
+
+        reader.beginObject();
+        assertEquals("a", reader.nextName());
+        assertEquals("b", reader.nextString());
+
+        assertThrows(MalformedJsonException.class, () -> {
+            final JsonReader strict = GsonHelper.newJsonReader(new StringReader("{a:'b'}"), Profile.COMPACT);
+            strict.beginObject();
+            strict.nextName();
+        });
+    }
+
+    @Test
+    void testParseJsonBytes() {
+        final String text = "{\"name\":\"Zoë\",\"tags\":[\"日本\",\"😀\"]}";
+
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(GsonHelper.parseJson(text), GsonHelper.parseJson(bytes));
+
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        assertEquals(GsonHelper.parseJson(text), GsonHelper.parseJson(buffer));
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    void testFromJsonBytes() {
+        final Type type = new TypeToken<Multiset<String>>() {
+        }.getType();
+
+        final Multiset<String> expected = ImmutableMultiset.of("é", "é", "ü");
+
+        final byte[] bytes = GsonHelper.getGson().toJson(expected, type).getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(expected, GsonHelper.fromJson(bytes, type));
+        assertEquals(expected, GsonHelper.fromJson(ByteBuffer.wrap(bytes), type));
+        assertThrows(JsonSyntaxException.class, () -> GsonHelper.fromJson("[[\"é\",2]".getBytes(StandardCharsets.UTF_8), type));
+    }
+
+    @Test
+    void testParseJsonPath(@TempDir final Path directory) throws IOException {
+        final String text = "{\"name\":\"Zoë\",\"values\":[1,2,3]}";
+
+        final Path path = Files.write(directory.resolve("document.json"), text.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(GsonHelper.parseJson(text), GsonHelper.parseJson(path));
+
+        try (final JsonReader reader = GsonHelper.newJsonReader(path)) {
+            reader.beginObject();
+            assertEquals("name", reader.nextName());
+            assertEquals("Zoë", reader.nextString());
+        }
+
+        assertThrows(NoSuchFileException.class, () -> GsonHelper.parseJson(directory.resolve("missing.json")));
+    }
+
+    @Test
+    void testStreamArray() {
+        final Type type = new TypeToken<Multiset<String>>() {
+        }.getType();
+
+        final JsonReader reader = new JsonReader(new StringReader("[[[\"a\",2]],{\"b\":1},null]"));
+
+        try (final Stream<Multiset<String>> stream = GsonHelper.streamArray(reader, type)) {
+            assertEquals(Arrays.asList(ImmutableMultiset.of("a", "a"), ImmutableMultiset.of("b"), null), stream.collect(Collectors.toList()));
+        }
+
+        assertThrows(IllegalStateException.class, () -> reader.peek()); // closed
+    }
+
+    @Test
+    void testIterateNestedArray() throws IOException {
+        final JsonReader reader = new JsonReader(new StringReader("{\"records\":[1,2,\"three\"],\"next\":true}"));
+
+        reader.beginObject();
+        reader.nextName();
+
+        final Iterator<Integer> iterator = GsonHelper.iterateArray(reader, Integer.class);
+
+        assertEquals(1, iterator.next());
+        assertEquals(2, iterator.next());
+        assertThrows(JsonSyntaxException.class, () -> iterator.next()); // lazily bound, element by element
+
+        final JsonReader valid = new JsonReader(new StringReader("{\"records\":[1,2],\"next\":true}"));
+
+        valid.beginObject();
+        valid.nextName();
+
+        assertEquals(ImmutableList.of(1, 2), ImmutableList.copyOf(GsonHelper.<Integer>iterateArray(valid, Integer.class)));
+        assertEquals("next", valid.nextName());
+    }
+
+    @Test
+    void testIterateArrayNotAnArray() {
+        assertThrows(JsonSyntaxException.class, () -> GsonHelper.iterateArray(new JsonReader(new StringReader("{}")), Integer.class).hasNext());
+    }
+}
@@ -0,0 +1,112 @@
+package software.leonov.util.gson;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMultiset;
+import com.google.common.collect.ImmutableSortedMultiset;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.MultimapBuilder;
+import com.google.common.collect.Multiset;
+import com.google.common.collect.SortedMultiset;
+import com.google.common.collect.TreeMultiset;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+
+class TestGuavaTypeAdapterFactory {
+
+    @Test
+    void test_unrelated_types_are_not_handled() {
+        final Gson gson = new Gson();
+
+        final GuavaTypeAdapterFactory factory = new GuavaTypeAdapterFactory();
+
+        assertNull(factory.create(gson, TypeToken.get(String.class)));
+        assertNull(factory.create(gson, new TypeToken<List<String>>() {
+        }));
+    }
+
+    @Test
+    void test_built_in_types() {
+        final Gson gson = new GsonBuilder().registerTypeAdapterFactory(new GuavaTypeAdapterFactory()).create();
+
+        final Type optional = new TypeToken<Optional<String>>() {
+        }.getType();
+
+        final Type multiset = new TypeToken<Multiset<String>>() {
+        }.getType();
+
+        assertEquals(Optional.of("a"), gson.fromJson("\"a\"", optional));
+        assertEquals(OptionalInt.of(1), gson.fromJson("1", OptionalInt.class));
+        assertEquals(ImmutableMultiset.of("a", "a", "b"), gson.fromJson("[[\"a\",2],[\"b\",1]]", multiset));
+    }
+
+    @Test
+    void test_custom_Multimap() {
+        // @formatter:off
+        final Gson gson = new GsonBuilder().registerTypeAdapterFactory(new GuavaTypeAdapterFactory()
+                .withMultimap(ListMultimap.class, () -> MultimapBuilder.treeKeys().arrayListValues().build()))
+                .create();
+        // @formatter:on
+
+        final Type type = new TypeToken<ListMultimap<String, Integer>>() {
+        }.getType();
+
+        final ListMultimap<String, Integer> actual = gson.fromJson("{\"b\":[2,3],\"a\":[1]}", type);
+
+        assertEquals(ImmutableListMultimap.of("a", 1, "b", 2, "b", 3), actual);
+        assertEquals(ImmutableList.of("a", "b"), ImmutableList.copyOf(actual.keySet()));
+    }
+
+    @Test
+    void test_custom_Multiset_replaces_unsupported_type() {
+        final Type type = new TypeToken<ImmutableSortedMultiset<String>>() {
+        }.getType();
+
+        final String json = "[[\"b\",1],[\"a\",2]]";
+
+        assertThrows(IllegalArgumentException.class, () -> new GsonBuilder().registerTypeAdapterFactory(new GuavaTypeAdapterFactory()).create().fromJson(json, type));
+
+        final Gson gson = new GsonBuilder().registerTypeAdapterFactory(new GuavaTypeAdapterFactory().withMultiset(SortedMultiset.class, () -> TreeMultiset.create())).create();
+
+        final Type sorted = new TypeToken<SortedMultiset<String>>() {
+        }.getType();
+
+        final SortedMultiset<String> actual = gson.fromJson(json, sorted);
+
+        assertEquals(ImmutableSortedMultiset.of("a", "a", "b"), actual);
+        assertTrue(actual instanceof TreeMultiset);
+    }
+
+    @Test
+    void test_delegate_factories() {
+        final MultisetTypeAdapterFactory multisets = new MultisetTypeAdapterFactory().withObjectEncoding();
+
+        final Gson gson = new GsonBuilder().registerTypeAdapterFactory(new GuavaTypeAdapterFactory().withMultisetFactory(multisets)).create();
+
+        final Type type = new TypeToken<Multiset<String>>() {
+        }.getType();
+
+        assertEquals("{\"a\":2}", gson.toJson(ImmutableMultiset.of("a", "a"), type));
+    }
+
+    @Test
+    void test_custom_type_must_match() {
+        final GuavaTypeAdapterFactory factory = new GuavaTypeAdapterFactory();
+
+        assertThrows(IllegalArgumentException.class, () -> factory.withMultiset(List.class, () -> TreeMultiset.create()));
+    }
+
+}
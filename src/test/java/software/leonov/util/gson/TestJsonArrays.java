@@ -0,0 +1,133 @@
+package software.leonov.util.gson;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.common.collect.ImmutableList;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.reflect.TypeToken;
+
+class TestJsonArrays {
+
+    private static ExecutorService executor;
+
+    @BeforeAll
+    static void setUpBeforeClass() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterAll
+    static void tearDownAfterClass() {
+        executor.shutdown();
+    }
+
+    static class Record {
+        int          id;
+        String       name;
+        List<String> tags;
+
+        Record() {
+        }
+
+        Record(final int id) {
+            this.id   = id;
+            this.name = "record \"" + id + "\" [é], {\\}";
+            this.tags = ImmutableList.of("a", "]", "}");
+        }
+    }
+
+    private static byte[] records(final int count) {
+        final List<Record> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            records.add(new Record(i));
+        return GsonHelper.getGson().toJson(records).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void assertRecords(final int count, final List<Record> records) {
+        assertEquals(count, records.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, records.get(i).id);
+            assertEquals(new Record(i).name, records.get(i).name);
+            assertEquals(new Record(i).tags, records.get(i).tags);
+        }
+    }
+
+    @Test
+    void test_parse() {
+        final byte[] bytes = records(30_000); // several batches
+
+        final List<Record> records = GsonHelper.parseArrayParallel(GsonHelper.getGson(), ByteBuffer.wrap(bytes), Record.class, executor);
+
+        assertRecords(30_000, records);
+    }
+
+    @Test
+    void test_parse_nested_and_null_elements() {
+        final String json = " [ [1, [2]], null, {\"a\": [3]} , \"x,]\" ]\n";
+
+        final List<Object> elements = GsonHelper.parseArrayParallel(json.getBytes(StandardCharsets.UTF_8), Object.class);
+
+        assertEquals(4, elements.size());
+        assertEquals(null, elements.get(1));
+        assertTrue(elements.get(2) instanceof Map);
+        assertEquals("x,]", elements.get(3));
+    }
+
+    @Test
+    void test_parse_empty_array() {
+        assertEquals(Arrays.asList(), GsonHelper.parseArrayParallel(" [ ] ".getBytes(StandardCharsets.UTF_8), Object.class));
+    }
+
+    @Test
+    void test_parse_generic_elements() {
+        final List<List<Integer>> elements = GsonHelper.parseArrayParallel("[[1,2],[3]]".getBytes(StandardCharsets.UTF_8), new TypeToken<List<Integer>>() {
+        }.getType());
+
+        assertEquals(Arrays.asList(ImmutableList.of(1, 2), ImmutableList.of(3)), elements);
+    }
+
+    @Test
+    void test_parse_malformed() {
+        assertMalformed("{\"a\": 1}", "Expected a JSON array at byte offset 0");
+        assertMalformed("[1,,2]", "Missing array element at byte offset 3");
+        assertMalformed("[1,2,]", "Missing array element at byte offset 5");
+        assertMalformed("[1,2] 3", "Unexpected data after the end of the array at byte offset 6");
+        assertMalformed("[1,[2]", "Unterminated JSON array");
+        assertMalformed("", "Expected a JSON array");
+        assertMalformed("[1,tru e]", "Malformed array element at byte offset 3");
+    }
+
+    private static void assertMalformed(final String json, final String message) {
+        final JsonSyntaxException e = assertThrows(JsonSyntaxException.class, () -> GsonHelper.parseArrayParallel(json.getBytes(StandardCharsets.UTF_8), Object.class));
+        assertEquals(message, e.getMessage());
+    }
+
+    @Test
+    void test_parse_path(@TempDir final Path directory) throws IOException {
+        final Path path = Files.write(directory.resolve("records.json"), records(1000));
+
+        for (final long windowSize : new long[] { 7, 4096, Utf8Reader.WINDOW_SIZE })
+            assertRecords(1000, JsonArrays.parse(GsonHelper.getGson(), path, windowSize, Record.class, executor));
+
+        assertRecords(1000, GsonHelper.parseArrayParallel(path, Record.class));
+    }
+
+}
@@ -0,0 +1,169 @@
+package software.leonov.util.gson;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMultiset;
+import com.google.common.collect.Multiset;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.reflect.TypeToken;
+
+class TestJsonLines {
+
+    private static ExecutorService executor;
+
+    @BeforeAll
+    static void setUpBeforeClass() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterAll
+    static void tearDownAfterClass() {
+        executor.shutdown();
+    }
+
+    static class Record {
+        int              id;
+        String           name;
+        Multiset<String> tags;
+
+        Record() {
+        }
+
+        Record(final int id) {
+            this.id   = id;
+            this.name = "record-" + id + "-é";
+            this.tags = ImmutableMultiset.of("a", "a", "b");
+        }
+    }
+
+    private static byte[] write(final int count, final boolean recordSeparators) throws IOException {
+        final StringWriter writer = new StringWriter();
+        try (final JsonLinesWriter out = new JsonLinesWriter(GsonHelper.getGson(), writer, recordSeparators)) {
+            for (int i = 0; i < count; i++)
+                out.write(new Record(i));
+        }
+        return writer.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void test_writer() throws IOException {
+        final String text = new String(write(2, false), StandardCharsets.UTF_8);
+
+        System.out.println(text);
+
+        assertEquals(2, text.split("\n").length);
+        assertTrue(text.startsWith("{\"id\":0,\"name\":\"record-0-é\",\"tags\":[[\"a\",2],[\"b\",1]]}\n"));
+    }
+
+    @Test
+    void test_writer_without_records() throws IOException {
+        final StringWriter writer = new StringWriter();
+        GsonHelper.newJsonLinesWriter(writer).close();
+        assertEquals("", writer.toString());
+    }
+
+    @Test
+    void test_read_ordered() throws IOException {
+        final byte[] bytes = write(50_000, false); // several batches
+
+        final List<Integer> ids = new ArrayList<>();
+        GsonHelper.<Record>readJsonLines(GsonHelper.getGson(), ByteBuffer.wrap(bytes), Record.class, executor, true, record -> ids.add(record.id));
+
+        assertEquals(50_000, ids.size());
+        for (int i = 0; i < ids.size(); i++)
+            assertEquals(i, ids.get(i));
+    }
+
+    @Test
+    void test_read_unordered() throws IOException {
+        final byte[] bytes = write(50_000, false);
+
+        final List<Integer> ids = new ArrayList<>();
+        GsonHelper.<Record>readJsonLines(GsonHelper.getGson(), ByteBuffer.wrap(bytes), Record.class, executor, false, record -> ids.add(record.id));
+
+        assertEquals(50_000, new HashSet<>(ids).size());
+    }
+
+    @Test
+    void test_read_json_text_sequence() throws IOException {
+        final byte[] bytes = write(3, true);
+
+        final List<Record> records = new ArrayList<>();
+        GsonHelper.<Record>readJsonLines(ByteBuffer.wrap(bytes), Record.class, records::add);
+
+        assertEquals(3, records.size());
+        assertEquals(ImmutableMultiset.of("a", "a", "b"), records.get(2).tags);
+    }
+
+    @Test
+    void test_read_multi_line_json_text_sequence() {
+        final String text = "\u001E{\n  \"a\": 1\n}\n\u001E[\n  2\n]\n";
+
+        final List<Object> records = new ArrayList<>();
+        GsonHelper.readJsonLines(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)), Object.class, records::add);
+
+        assertEquals(2, records.size());
+    }
+
+    @Test
+    void test_read_blank_lines_and_crlf() {
+        final Type type = new TypeToken<List<Integer>>() {
+        }.getType();
+
+        final String text = "\r\n[1,2]\r\n\r\n  \n[3]\r\nnull\n";
+
+        final List<List<Integer>> records = new ArrayList<>();
+        GsonHelper.<List<Integer>>readJsonLines(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)), type, records::add);
+
+        assertEquals(Arrays.asList(ImmutableList.of(1, 2), ImmutableList.of(3), null), records);
+    }
+
+    @Test
+    void test_read_malformed() {
+        final String text = "[1]\n[2\n[3]\n";
+
+        final JsonSyntaxException e = assertThrows(JsonSyntaxException.class, () -> GsonHelper.readJsonLines(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)), int[].class, record -> {
+        }));
+
+        assertEquals("Malformed JSON record at byte offset 4", e.getMessage());
+    }
+
+    @Test
+    void test_read_path(@TempDir final Path directory) throws IOException {
+        final Path path = Files.write(directory.resolve("records.ndjson"), write(100, false));
+
+        for (final long windowSize : new long[] { 128, 1000, Utf8Reader.WINDOW_SIZE }) {
+            final List<Integer> ids = new ArrayList<>();
+            JsonLines.<Record>read(GsonHelper.getGson(), path, windowSize, Record.class, executor, true, record -> ids.add(record.id));
+
+            assertEquals(100, ids.size());
+            assertEquals(99, (int) ids.get(99));
+        }
+
+        assertThrows(JsonSyntaxException.class, () -> JsonLines.read(GsonHelper.getGson(), path, 16, Record.class, executor, true, record -> {
+        }));
+    }
+
+}
@@ -0,0 +1,116 @@
+package software.leonov.util.gson;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ListMultimap;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+
+class TestJsonSelector {
+
+    // @formatter:off
+    private static final String JSON = "{"
+            + "\"store\": {"
+            +     "\"book\": ["
+            +         "{\"title\": \"Sayings of the Century\", \"price\": 8.95, \"tags\": [\"a\", \"b\"]},"
+            +         "{\"title\": \"Sword of Honour\", \"price\": 12.99, \"isbn\": null},"
+            +         "{\"title\": \"Moby Dick\", \"price\": 8.99}"
+            +     "],"
+            +     "\"bicycle\": {\"color\": \"red\", \"price\": 19.95},"
+            +     "\"a/b\": 1,"
+            +     "\"m~n\": 2,"
+            +     "\"x.y\": 3,"
+            +     "\"0\": \"zero\""
+            + "},"
+            + "\"expensive\": 10"
+            + "}";
+    // @formatter:on
+
+    static class Book {
+        String       title;
+        double       price;
+        List<String> tags;
+    }
+
+    private static JsonReader reader() {
+        return new JsonReader(new StringReader(JSON));
+    }
+
+    @Test
+    void test_json_pointer() throws IOException {
+        final ListMultimap<String, JsonElement> result = GsonHelper.extract(reader(), "/store/book/1/title", "/store/a~1b", "/store/m~0n", "/store/0", "/expensive", "/missing");
+
+        assertEquals(ImmutableList.of(new JsonPrimitive("Sword of Honour")), result.get("/store/book/1/title"));
+        assertEquals(ImmutableList.of(new JsonPrimitive(1)), result.get("/store/a~1b"));
+        assertEquals(ImmutableList.of(new JsonPrimitive(2)), result.get("/store/m~0n"));
+        assertEquals(ImmutableList.of(new JsonPrimitive("zero")), result.get("/store/0"));
+        assertEquals(ImmutableList.of(new JsonPrimitive(10)), result.get("/expensive"));
+        assertFalse(result.containsKey("/missing"));
+        assertEquals(Arrays.asList("/store/book/1/title", "/store/a~1b", "/store/m~0n", "/store/0", "/expensive"), ImmutableList.copyOf(result.keySet()));
+    }
+
+    @Test
+    void test_json_pointer_whole_document() throws IOException {
+        assertEquals(GsonHelper.parseJson(JSON), GsonHelper.extract(reader(), "").get("").get(0));
+    }
+
+    @Test
+    void test_json_path() throws IOException {
+        final ListMultimap<String, JsonElement> result = GsonHelper.extract(reader(), "$.store.book[*].title", "$.store.*.price", "$['store'][\"x.y\"]", "$.store.book[2].price");
+
+        assertEquals(ImmutableList.of(new JsonPrimitive("Sayings of the Century"), new JsonPrimitive("Sword of Honour"), new JsonPrimitive("Moby Dick")), result.get("$.store.book[*].title"));
+        assertEquals(ImmutableList.of(new JsonPrimitive(19.95)), result.get("$.store.*.price"));
+        assertEquals(ImmutableList.of(new JsonPrimitive(3)), result.get("$['store'][\"x.y\"]"));
+        assertEquals(ImmutableList.of(new JsonPrimitive(8.99)), result.get("$.store.book[2].price"));
+    }
+
+    @Test
+    void test_nested_selections() throws IOException {
+        final ListMultimap<String, JsonElement> result = GsonHelper.extract(reader(), "$.store.bicycle", "$.store.bicycle.color", "$.store.bicycle.*");
+
+        assertEquals(GsonHelper.parseJson("{\"color\": \"red\", \"price\": 19.95}"), result.get("$.store.bicycle").get(0));
+        assertEquals(ImmutableList.of(new JsonPrimitive("red")), result.get("$.store.bicycle.color"));
+        assertEquals(ImmutableList.of(new JsonPrimitive("red"), new JsonPrimitive(19.95)), result.get("$.store.bicycle.*"));
+    }
+
+    @Test
+    void test_typed() throws IOException {
+        final ListMultimap<String, Book> books = GsonHelper.extract(reader(), Book.class, "$.store.book[*]");
+
+        assertEquals(3, books.size());
+        assertEquals("Moby Dick", books.get("$.store.book[*]").get(2).title);
+        assertEquals(ImmutableList.of("a", "b"), books.get("$.store.book[*]").get(0).tags);
+
+        final ListMultimap<String, String> isbn = GsonHelper.extract(reader(), String.class, "/store/book/1/isbn");
+        assertNull(isbn.get("/store/book/1/isbn").get(0));
+    }
+
+    @Test
+    void test_consumes_one_value() throws IOException {
+        final JsonReader in = new JsonReader(new StringReader("[" + JSON + ", 42]"));
+        in.beginArray();
+
+        final JsonSelector selector = JsonSelector.compile("/expensive");
+        assertEquals(new JsonPrimitive(10), selector.select(in).get("/expensive").get(0));
+        assertEquals(42, in.nextInt());
+    }
+
+    @Test
+    void test_unsupported_syntax() {
+        for (final String path : new String[] { "$..price", "$.store.", "$[-1]", "$[0:2]", "$[?(@.price)]", "$['a'", "$x", "store", "/a~2", "/a~" })
+            assertThrows(IllegalArgumentException.class, () -> JsonSelector.compile(path), path);
+    }
+
+}
@@ -0,0 +1,118 @@
+package software.leonov.util.gson;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.reflect.TypeToken;
+
+class TestLazyJsonElement {
+
+    private static final String JSON = " {\"name\": \"config\", \"version\": 3, \"ratio\": 1.50, \"enabled\": true, \"none\": null,"
+            + " \"tags\": [\"a\", \"b\\\"]\", {\"c\": [1, 2]}],"
+            + " \"nested\": {\"esc\\u0061ped\": \"x\", \"deep\": {\"deeper\": [[], {}]}},"
+            + " \"dup\": 1, \"dup\": 2} \n";
+
+    @Test
+    void test_object() {
+        final LazyJsonElement root = GsonHelper.parseJsonLazily(JSON);
+
+        assertTrue(root.isJsonObject());
+        assertFalse(root.isJsonArray());
+        assertEquals(Arrays.asList("name", "version", "ratio", "enabled", "none", "tags", "nested", "dup"), ImmutableList.copyOf(root.keySet()));
+        assertEquals(8, root.size());
+        assertTrue(root.has("none"));
+        assertNull(root.get("missing"));
+
+        assertEquals("config", root.get("name").getAsString());
+        assertEquals(3, root.get("version").getAsInt());
+        assertEquals(new BigDecimal("1.50"), root.get("ratio").getAsBigDecimal());
+        assertTrue(root.get("enabled").getAsBoolean());
+        assertTrue(root.get("none").isJsonNull());
+        assertFalse(root.get("none").isJsonPrimitive());
+        assertEquals(2, root.get("dup").getAsInt()); // the last member wins, as by JsonObject
+        assertEquals("x", root.get("nested").get("escaped").getAsString());
+
+        assertThrows(UnsupportedOperationException.class, () -> root.keySet().clear());
+    }
+
+    @Test
+    void test_array() {
+        final LazyJsonElement tags = GsonHelper.parseJsonLazily(JSON).get("tags");
+
+        assertTrue(tags.isJsonArray());
+        assertEquals(3, tags.size());
+        assertEquals("b\"]", tags.get(1).getAsString());
+        assertEquals(2, tags.get(2).get("c").get(1).getAsLong());
+        assertEquals(3, tags.asList().size());
+        assertThrows(IndexOutOfBoundsException.class, () -> tags.get(3));
+
+        final LazyJsonElement deeper = GsonHelper.parseJsonLazily(JSON).get("nested").get("deep").get("deeper");
+        assertEquals(0, deeper.get(0).size());
+        assertEquals(0, deeper.get(1).size());
+    }
+
+    @Test
+    void test_to_json_element() {
+        final LazyJsonElement root = GsonHelper.parseJsonLazily(JSON);
+
+        assertEquals(GsonHelper.parseJson(JSON), root.toJsonElement());
+        assertEquals(GsonHelper.parseJson(JSON).getAsJsonObject().get("nested"), root.get("nested").toJsonElement());
+        assertEquals(JsonNull.INSTANCE, root.get("none").toJsonElement());
+        assertEquals("{\"c\": [1, 2]}", root.get("tags").get(2).toString());
+    }
+
+    @Test
+    void test_get_as() {
+        final LazyJsonElement root = GsonHelper.parseJsonLazily(JSON);
+
+        final List<List<Integer>> lists = root.get("tags").get(2).get("c").getAs(new TypeToken<List<Integer>>() {
+        }.getType());
+        assertEquals(Arrays.asList(1, 2), lists);
+    }
+
+    @Test
+    void test_wrong_kind() {
+        final LazyJsonElement root = GsonHelper.parseJsonLazily(JSON);
+
+        assertThrows(IllegalStateException.class, () -> root.get(0));
+        assertThrows(IllegalStateException.class, () -> root.getAsString());
+        assertThrows(IllegalStateException.class, () -> root.get("name").get("x"));
+        assertThrows(IllegalStateException.class, () -> root.get("name").size());
+        assertThrows(IllegalStateException.class, () -> root.get("none").getAsString());
+    }
+
+    @Test
+    void test_empty() {
+        assertTrue(GsonHelper.parseJsonLazily("  ").isJsonNull());
+    }
+
+    @Test
+    void test_malformed_detected_on_access() {
+        final LazyJsonElement root = GsonHelper.parseJsonLazily("{\"good\": 1, \"bad\": {\"a\" 1}, \"worse\": [1,,2], \"literal\": tru}");
+
+        assertEquals(1, root.get("good").getAsInt());
+        assertThrows(JsonSyntaxException.class, () -> root.get("bad").get("a"));
+        assertThrows(JsonSyntaxException.class, () -> root.get("worse").size());
+        assertThrows(JsonSyntaxException.class, () -> root.get("literal").getAsString());
+    }
+
+    @Test
+    void test_malformed_top_level() {
+        assertThrows(JsonSyntaxException.class, () -> GsonHelper.parseJsonLazily("{\"a\": 1"));
+        assertThrows(JsonSyntaxException.class, () -> GsonHelper.parseJsonLazily("[1] [2]"));
+        assertThrows(JsonSyntaxException.class, () -> GsonHelper.parseJsonLazily("\"abc"));
+    }
+
+}
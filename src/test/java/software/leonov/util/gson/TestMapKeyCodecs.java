@@ -0,0 +1,144 @@
+package software.leonov.util.gson;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.fatboyindustrial.gsonjavatime.Converters;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Table;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+class TestMapKeyCodecs {
+
+    enum Color {
+        RED,
+        @SerializedName(value = "green", alternate = { "GREEN", "verde" })
+        GREEN
+    }
+
+    @Test
+    void test_built_in_codecs_are_selected_for_default_adapters() {
+        final Gson gson = GsonHelper.getGson();
+
+        assertNotNull(MapKeyCodecs.forType(gson, String.class));
+        assertNotNull(MapKeyCodecs.forType(gson, Integer.class));
+        assertNotNull(MapKeyCodecs.forType(gson, Double.class));
+        assertNotNull(MapKeyCodecs.forType(gson, UUID.class));
+        assertNotNull(MapKeyCodecs.forType(gson, Color.class));
+        assertNotNull(MapKeyCodecs.forType(gson, Instant.class));
+        assertNotNull(MapKeyCodecs.forType(gson, ZonedDateTime.class));
+        assertNull(MapKeyCodecs.forType(gson, Object.class));
+        assertNull(MapKeyCodecs.forType(gson, new TypeToken<Multimap<String, String>>() {
+        }.getType()));
+    }
+
+    @Test
+    void test_no_codec_for_overridden_adapters() {
+        final TypeAdapter<String> upperCase = new TypeAdapter<String>() {
+
+            @Override
+            public void write(final JsonWriter out, final String value) throws IOException {
+                out.value(value.toUpperCase());
+            }
+
+            @Override
+            public String read(final JsonReader in) throws IOException {
+                return in.nextString().toLowerCase();
+            }
+        };
+
+        final Gson gson = new GsonBuilder().registerTypeAdapter(String.class, upperCase).create();
+
+        assertNull(MapKeyCodecs.forType(gson, String.class));
+        assertNull(MapKeyCodecs.forType(gson, Instant.class)); // no gson-javatime-serialisers
+    }
+
+    @Test
+    void test_enum_codec_respects_SerializedName() {
+        final MapKeyCodec<Color> codec = MapKeyCodecs.forEnum(Color.class);
+
+        assertEquals("RED", codec.encode(Color.RED));
+        assertEquals("green", codec.encode(Color.GREEN));
+        assertEquals(Color.GREEN, codec.decode("green"));
+        assertEquals(Color.GREEN, codec.decode("verde"));
+        assertNull(codec.decode("BLUE"));
+    }
+
+    @Test
+    void test_numeric_codec_rejects_invalid_names() {
+        @SuppressWarnings("unchecked")
+        final MapKeyCodec<Integer> codec = (MapKeyCodec<Integer>) MapKeyCodecs.forType(GsonHelper.getGson(), Integer.class);
+
+        assertEquals(Integer.valueOf(42), codec.decode("42"));
+        assertEquals(Integer.valueOf(42), codec.decode("42.0"));
+        assertThrows(JsonSyntaxException.class, () -> codec.decode("42.5"));
+        assertThrows(JsonSyntaxException.class, () -> codec.decode("forty-two"));
+    }
+
+    @Test
+    void test_multimap_keys_with_escaped_characters() {
+        final Type type = new TypeToken<Multimap<String, Integer>>() {
+        }.getType();
+
+        final Multimap<String, Integer> expected = ImmutableMultimap.of("a \"quoted\" key", 1, "back\\slash", 2, "new\nline", 3);
+
+        final String json = GsonHelper.getGson().toJson(expected, type);
+
+        assertEquals(expected, GsonHelper.getGson().fromJson(json, type));
+    }
+
+    @Test
+    void test_multimap_enum_and_uuid_keys() {
+        final Type enumType = new TypeToken<Multimap<Color, Integer>>() {
+        }.getType();
+        final Type uuidType = new TypeToken<Multimap<UUID, Integer>>() {
+        }.getType();
+
+        final Multimap<Color, Integer> colors = ImmutableMultimap.of(Color.RED, 1, Color.GREEN, 2, Color.GREEN, 3);
+        final Multimap<UUID, Integer>  uuids  = ImmutableMultimap.of(UUID.randomUUID(), 1, UUID.randomUUID(), 2);
+
+        assertEquals(colors, GsonHelper.getGson().fromJson(GsonHelper.getGson().toJson(colors, enumType), enumType));
+        assertEquals(uuids, GsonHelper.getGson().fromJson(GsonHelper.getGson().toJson(uuids, uuidType), uuidType));
+    }
+
+    @Test
+    void test_table_integer_and_local_date_keys() {
+        final Gson gson = GsonHelper.registerAll(Converters.registerAll(new GsonBuilder())).create();
+
+        final Type type = new TypeToken<Table<Integer, LocalDate, String>>() {
+        }.getType();
+
+        final LocalDate today = LocalDate.now();
+
+        final Table<Integer, LocalDate, String> expected = ImmutableTable.<Integer, LocalDate, String>builder()
+                .put(1, today, "one")
+                .put(1, today.plusDays(1), "two")
+                .put(2, today, "three")
+                .build();
+
+        final String json = gson.toJson(expected, type);
+
+        assertEquals(expected, gson.fromJson(json, type));
+    }
+
+}
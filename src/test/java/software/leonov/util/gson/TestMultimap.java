@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import java.lang.reflect.Type;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -15,11 +16,17 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInfo;
 
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.LinkedListMultimap;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Multimap;
 import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
 
 
@@ -116,4 +123,139 @@ class TestMultimap {
         assertEquals(map, map2);
     }
 
+    @Test
+    void test_multimap_wire_format_matches_map_adapter() {
+        final Gson gson = GsonHelper.getGson();
+
+        final Type type = new TypeToken<Multimap<String, Integer>>() {
+        }.getType();
+        final Type mapType = new TypeToken<Map<String, Collection<Integer>>>() {
+        }.getType();
+
+        final Multimap<String, Integer> map = LinkedListMultimap.create();
+        map.put("one", 1);
+        map.put("two", 2);
+        map.put("one", 3);
+
+        assertEquals(gson.toJson(map.asMap(), mapType), gson.toJson(map, type));
+    }
+
+    @Test
+    void test_multimap_complex_keys_wire_format_matches_map_adapter() {
+        final Gson gson = GsonHelper.getGson();
+
+        final Type type = new TypeToken<Multimap<List<String>, Integer>>() {
+        }.getType();
+        final Type mapType = new TypeToken<Map<List<String>, Collection<Integer>>>() {
+        }.getType();
+
+        final Multimap<List<String>, Integer> map = ArrayListMultimap.create();
+        map.put(ImmutableList.of("one", "two"), 1);
+        map.put(ImmutableList.of("one", "two"), 2);
+        map.put(ImmutableList.of("three"), 3);
+
+        final String json = gson.toJson(map, type);
+
+        assertEquals(gson.toJson(map.asMap(), mapType), json);
+        assertEquals(map, gson.fromJson(json, type));
+    }
+
+    @Test
+    void test_multimap_without_complex_map_key_serialization() {
+        final Gson gson = GsonHelper.registerAll(new GsonBuilder()).create();
+
+        final Type type = new TypeToken<Multimap<Integer, String>>() {
+        }.getType();
+
+        final Multimap<Integer, String> map = ImmutableListMultimap.of(1, "one", 1, "uno", 2, "two");
+
+        final String json = gson.toJson(map, type);
+
+        assertEquals("{\"1\":[\"one\",\"uno\"],\"2\":[\"two\"]}", json);
+        assertEquals(map, gson.fromJson(json, type));
+    }
+
+    @Test
+    void test_immutable_multimaps() {
+        final Type listType = new TypeToken<ImmutableListMultimap<String, Integer>>() {
+        }.getType();
+        final Type setType = new TypeToken<ImmutableSetMultimap<String, Integer>>() {
+        }.getType();
+
+        final ImmutableListMultimap<String, Integer> list = ImmutableListMultimap.of("a", 1, "a", 1, "b", 2);
+        final ImmutableSetMultimap<String, Integer>  set  = ImmutableSetMultimap.of("a", 1, "a", 2, "b", 3);
+
+        final ImmutableListMultimap<String, Integer> actualList = GsonHelper.getGson().fromJson(GsonHelper.getGson().toJson(list, listType), listType);
+        final ImmutableSetMultimap<String, Integer>  actualSet  = GsonHelper.getGson().fromJson(GsonHelper.getGson().toJson(set, setType), setType);
+
+        assertEquals(list, actualList);
+        assertEquals(set, actualSet);
+    }
+
+    @Test
+    void test_immutable_multimap_complex_keys() {
+        final Type type = new TypeToken<ImmutableMultimap<List<String>, Integer>>() {
+        }.getType();
+
+        final Multimap<List<String>, Integer> expected = ImmutableMultimap.of(ImmutableList.of("a", "b"), 1, ImmutableList.of("a", "b"), 2, ImmutableList.of("c"), 3);
+
+        final String text = GsonHelper.getGson().toJson(expected, type);
+
+        System.out.println(text);
+
+        assertEquals(expected, GsonHelper.getGson().fromJson(text, type));
+    }
+
+    @Test
+    void test_multimap_subclass_values() {
+        final Gson gson = GsonHelper.registerAll(new GsonBuilder()).create();
+
+        final Type type = new TypeToken<ListMultimap<String, Animal>>() {
+        }.getType();
+
+        final ListMultimap<String, Animal> map = ImmutableListMultimap.of("k", new Dog("a", true));
+
+        final String json = gson.toJson(map, type);
+
+        assertEquals("{\"k\":[{\"barks\":true,\"name\":\"a\"}]}", json);
+
+        final ListMultimap<String, Animal> map2 = gson.fromJson(json, type);
+
+        assertEquals("a", map2.get("k").get(0).name);
+    }
+
+    @Test
+    void test_multimap_subclass_keys_wire_format_matches_map_adapter() {
+        final Gson gson = GsonHelper.registerAll(new GsonBuilder().enableComplexMapKeySerialization()).create();
+
+        final Type type = new TypeToken<Multimap<Animal, Integer>>() {
+        }.getType();
+        final Type mapType = new TypeToken<Map<Animal, Collection<Integer>>>() {
+        }.getType();
+
+        final Multimap<Animal, Integer> map = ImmutableListMultimap.of(new Dog("a", true), 1);
+
+        final String json = gson.toJson(map, type);
+
+        assertEquals("[[{\"barks\":true,\"name\":\"a\"},[1]]]", json);
+        assertEquals(gson.toJson(map.asMap(), mapType), json);
+    }
+
+    static class Animal {
+        final String name;
+
+        Animal(final String name) {
+            this.name = name;
+        }
+    }
+
+    static class Dog extends Animal {
+        final boolean barks;
+
+        Dog(final String name, final boolean barks) {
+            super(name);
+            this.barks = barks;
+        }
+    }
+
 }
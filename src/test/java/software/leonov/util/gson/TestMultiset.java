@@ -2,9 +2,12 @@ package software.leonov.util.gson;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.lang.reflect.Type;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
@@ -13,9 +16,13 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInfo;
 
+import com.google.common.collect.HashMultiset;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMultiset;
+import com.google.common.collect.ImmutableSortedMultiset;
 import com.google.common.collect.Multiset;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
 
 
@@ -91,7 +98,7 @@ class TestMultiset {
     }
 
     @Test
-    void test_Multiset_wrong_type() {
+    void test_ImmutableMultiset() {
         final Type type = new TypeToken<ImmutableMultiset<Integer>>() {
         }.getType();
 
@@ -101,11 +108,96 @@ class TestMultiset {
 
         System.out.println(text);
 
+        final ImmutableMultiset<Integer> actual = GsonHelper.getGson().fromJson(text, type);
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void test_Multiset_wrong_type() {
+        final Type type = new TypeToken<ImmutableSortedMultiset<Integer>>() {
+        }.getType();
+
+        final Multiset<Integer> expected = ImmutableSortedMultiset.of(1, 1, 1, 2, 2, 3, 3, 3, 3, 4, 5, 5);
+
+        final String text = GsonHelper.getGson().toJson(expected, type);
+
+        System.out.println(text);
+
         final Exception exception = assertThrows(IllegalArgumentException.class, () -> {
             GsonHelper.getGson().fromJson(text, type);
         });
 
-        assertEquals("ImmutableMultiset is not supported; try one of [HashMultiset, LinkedHashMultiset, TreeMultiset, ConcurrentHashMultiset]", exception.getMessage());
+        assertEquals("ImmutableSortedMultiset is not supported; try one of [HashMultiset, LinkedHashMultiset, TreeMultiset, ConcurrentHashMultiset, ImmutableMultiset]", exception.getMessage());
+    }
+
+    @Test
+    void test_Multiset_object_encoding() {
+        final Gson gson = new GsonBuilder().registerTypeAdapterFactory(new MultisetTypeAdapterFactory().withObjectEncoding()).create();
+
+        final Type type = new TypeToken<Multiset<String>>() {
+        }.getType();
+
+        final Multiset<String> expected = ImmutableMultiset.of("apple", "apple", "apple", "pear");
+
+        final String text = gson.toJson(expected, type);
+
+        System.out.println(text);
+
+        assertEquals("{\"apple\":3,\"pear\":1}", text);
+        assertEquals(expected, gson.fromJson(text, type));
+        assertEquals(expected, GsonHelper.getGson().fromJson(text, type)); // auto-detected
+    }
+
+    @Test
+    void test_Multiset_object_encoding_falls_back_to_array_form() {
+        final Gson gson = new GsonBuilder().registerTypeAdapterFactory(new MultisetTypeAdapterFactory().withObjectEncoding()).create();
+
+        final Type type = new TypeToken<Multiset<List<String>>>() {
+        }.getType();
+
+        final Multiset<List<String>> expected = ImmutableMultiset.of(ImmutableList.of("a", "b"), ImmutableList.of("a", "b"), ImmutableList.of("c"));
+
+        final String text = gson.toJson(expected, type);
+
+        System.out.println(text);
+
+        assertEquals("[[[\"a\",\"b\"],2],[[\"c\"],1]]", text);
+        assertEquals(expected, gson.fromJson(text, type));
+    }
+
+    @Test
+    void test_Multiset_object_encoding_enum_and_integer_elements() {
+        final Gson gson = new GsonBuilder().registerTypeAdapterFactory(new MultisetTypeAdapterFactory().withObjectEncoding()).create();
+
+        final Type enumType = new TypeToken<Multiset<TimeUnit>>() {
+        }.getType();
+        final Type intType = new TypeToken<Multiset<Integer>>() {
+        }.getType();
+
+        final Multiset<TimeUnit> units    = ImmutableMultiset.of(TimeUnit.SECONDS, TimeUnit.SECONDS, TimeUnit.DAYS);
+        final Multiset<Integer>  integers = ImmutableMultiset.of(1, 1, 2, 3, 3, 3);
+
+        assertEquals("{\"SECONDS\":2,\"DAYS\":1}", gson.toJson(units, enumType));
+        assertEquals(units, gson.fromJson(gson.toJson(units, enumType), enumType));
+        assertEquals(integers, gson.fromJson(gson.toJson(integers, intType), intType));
+    }
+
+    @Test
+    void test_Multiset_object_encoding_null_elements() {
+        final Gson gson = new GsonBuilder().registerTypeAdapterFactory(new MultisetTypeAdapterFactory().withObjectEncoding()).create();
+
+        final Type type = new TypeToken<HashMultiset<String>>() {
+        }.getType();
+
+        final Multiset<String> expected = HashMultiset.create(Arrays.asList(null, null, "x"));
+
+        final String text = gson.toJson(expected, type);
+
+        System.out.println(text);
+
+        assertTrue(text.startsWith("[["));
+        assertEquals(expected, gson.fromJson(text, type));
     }
 
 }
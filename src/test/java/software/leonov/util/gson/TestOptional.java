@@ -1,11 +1,15 @@
 package software.leonov.util.gson;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.lang.reflect.Type;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
@@ -16,6 +20,7 @@ import org.junit.jupiter.api.TestInfo;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
 
 
@@ -109,4 +114,63 @@ class TestOptional {
 
         assertEquals(expected, actual);
     }
+
+    static class Primitives {
+
+        OptionalInt    i = OptionalInt.empty();
+        OptionalLong   l = OptionalLong.empty();
+        OptionalDouble d = OptionalDouble.empty();
+
+    }
+
+    @Test
+    void test_OptionalInt_OptionalLong_OptionalDouble() {
+        final Gson gson = GsonHelper.getGson();
+
+        final Primitives expected = new Primitives();
+        expected.i = OptionalInt.of(1);
+        expected.l = OptionalLong.of(Long.MAX_VALUE);
+        expected.d = OptionalDouble.of(3.5);
+
+        final String text = gson.toJson(expected);
+
+        System.out.println(text);
+
+        final Primitives actual = gson.fromJson(text, Primitives.class);
+
+        assertEquals(expected.i, actual.i);
+        assertEquals(expected.l, actual.l);
+        assertEquals(expected.d, actual.d);
+    }
+
+    @Test
+    void test_empty_OptionalInt_OptionalLong_OptionalDouble() {
+        final Gson gson = GsonHelper.getGson();
+
+        final String text = gson.toJson(new Primitives());
+
+        System.out.println(text);
+
+        assertEquals("{\"i\":null,\"l\":null,\"d\":null}", text.replaceAll("\\s", ""));
+
+        final Primitives actual = gson.fromJson("{\"i\":null,\"l\":null,\"d\":null}", Primitives.class);
+
+        assertEquals(OptionalInt.empty(), actual.i);
+        assertEquals(OptionalLong.empty(), actual.l);
+        assertEquals(OptionalDouble.empty(), actual.d);
+    }
+
+    @Test
+    void test_OptionalDouble_special_floating_point_values() {
+        final Primitives primitives = new Primitives();
+        primitives.d = OptionalDouble.of(Double.NaN);
+
+        assertThrows(IllegalArgumentException.class, () -> GsonHelper.getGson().toJson(primitives));
+        assertThrows(IllegalArgumentException.class, () -> new OptionalDoubleTypeAdapter().toJson(OptionalDouble.of(Double.POSITIVE_INFINITY)));
+
+        final Gson gson = GsonHelper.registerAll(new GsonBuilder().serializeSpecialFloatingPointValues()).create();
+
+        assertEquals("{\"d\":NaN}", gson.toJson(primitives));
+    }
+
 }
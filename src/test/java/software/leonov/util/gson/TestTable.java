@@ -1,10 +1,14 @@
 package software.leonov.util.gson;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
@@ -14,15 +18,23 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInfo;
 
 import com.fatboyindustrial.gsonjavatime.Converters;
+import com.google.common.collect.ArrayTable;
+import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Table;
+import com.google.common.collect.TreeBasedTable;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 
 
 class TestTable {
@@ -96,4 +108,308 @@ class TestTable {
         assertEquals(map, map2);
     }
 
+    @Test
+    void test_table_wire_format_matches_map_adapter() {
+        final Gson gson = GsonHelper.getGson();
+
+        final Type type = new TypeToken<Table<String, Integer, String>>() {
+        }.getType();
+        final Type mapType = new TypeToken<Map<String, Map<Integer, String>>>() {
+        }.getType();
+
+        final Table<String, Integer, String> table = TreeBasedTable.create();
+        table.put("one", 1, "one-one");
+        table.put("one", 2, "one-two");
+        table.put("two", 1, "two-one");
+
+        final String json = gson.toJson(table, type);
+
+        assertEquals(gson.toJson(table.rowMap(), mapType), json);
+        assertEquals(table, gson.fromJson(json, type));
+    }
+
+    @Test
+    void test_table_complex_row_keys_with_multiple_columns() {
+        final Gson gson = GsonHelper.getGson();
+
+        final Type type = new TypeToken<Table<List<String>, String, Integer>>() {
+        }.getType();
+        final Type mapType = new TypeToken<Map<List<String>, Map<String, Integer>>>() {
+        }.getType();
+
+        final Table<List<String>, String, Integer> table = HashBasedTable.create();
+        table.put(ImmutableList.of("a", "b"), "x", 1);
+        table.put(ImmutableList.of("a", "b"), "y", 2);
+        table.put(ImmutableList.of("c"), "x", 3);
+
+        final String json = gson.toJson(table, type);
+
+        assertEquals(gson.toJson(table.rowMap(), mapType), json);
+        assertEquals(table, gson.fromJson(json, type));
+    }
+
+    @Test
+    void test_table_complex_column_keys_with_simple_row_keys() {
+        final Gson gson = GsonHelper.getGson();
+
+        final Type type = new TypeToken<Table<String, List<Integer>, String>>() {
+        }.getType();
+        final Type mapType = new TypeToken<Map<String, Map<List<Integer>, String>>>() {
+        }.getType();
+
+        final Table<String, List<Integer>, String> table = HashBasedTable.create();
+        table.put("one", ImmutableList.of(1, 2), "one-a");
+        table.put("one", ImmutableList.of(3), "one-b");
+        table.put("two", ImmutableList.of(1, 2), "two-a");
+
+        final String json = gson.toJson(table, type);
+
+        assertEquals(gson.toJson(table.rowMap(), mapType), json);
+        assertEquals(table, gson.fromJson(json, type));
+    }
+
+    @Test
+    void test_immutable_table() {
+        final Type type = new TypeToken<ImmutableTable<String, Integer, String>>() {
+        }.getType();
+
+        final Table<String, Integer, String> expected = ImmutableTable.<String, Integer, String>builder()
+                .put("a", 1, "a1")
+                .put("a", 2, "a2")
+                .put("b", 1, "b1")
+                .build();
+
+        final String text = GsonHelper.getGson().toJson(expected, type);
+
+        System.out.println(text);
+
+        final ImmutableTable<String, Integer, String> actual = GsonHelper.getGson().fromJson(text, type);
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void test_table_columnar_encoding() {
+        final Gson gson = new GsonBuilder().registerTypeAdapterFactory(new TableTypeAdapterFactory().withColumnarEncoding()).create();
+
+        final Type type = new TypeToken<Table<String, Integer, Double>>() {
+        }.getType();
+
+        final Table<String, Integer, Double> expected = HashBasedTable.create();
+        expected.put("a", 1, 1.5);
+        expected.put("a", 2, 2.5);
+        expected.put("b", 2, 3.5); // (b, 1) is absent
+
+        final String text = gson.toJson(expected, type);
+
+        System.out.println(text);
+
+        assertEquals(ImmutableList.of("rowKeys", "columnKeys", "values"), ImmutableList.copyOf(GsonHelper.parseJson(text).getAsJsonObject().keySet()));
+        assertEquals(expected, gson.fromJson(text, type));
+        assertEquals(expected, GsonHelper.getGson().fromJson(text, type)); // auto-detected
+    }
+
+    @Test
+    void test_ArrayTable_columnar_encoding() {
+        final Gson gson = GsonHelper.registerAll(new GsonBuilder()).registerTypeAdapterFactory(new TableTypeAdapterFactory().withColumnarEncoding()).create();
+
+        final Type type = new TypeToken<ArrayTable<String, String, Integer>>() {
+        }.getType();
+
+        final ArrayTable<String, String, Integer> expected = ArrayTable.create(ImmutableList.of("r1", "r2"), ImmutableList.of("c1", "c2", "c3"));
+        expected.put("r1", "c1", 1);
+        expected.put("r1", "c3", 3);
+        expected.put("r2", "c2", 5);
+
+        final String text = gson.toJson(expected, type);
+
+        System.out.println(text);
+
+        assertEquals("{\"rowKeys\":[\"r1\",\"r2\"],\"columnKeys\":[\"c1\",\"c2\",\"c3\"],\"values\":[[1,null,3],[null,5,null]]}", text);
+
+        final ArrayTable<String, String, Integer> actual = gson.fromJson(text, type);
+
+        assertEquals(expected, actual);
+        assertEquals(expected.rowKeyList(), actual.rowKeyList());
+        assertEquals(expected.columnKeyList(), actual.columnKeyList());
+    }
+
+    @Test
+    void test_ArrayTable_default_encoding() {
+        final Type type = new TypeToken<ArrayTable<String, String, Integer>>() {
+        }.getType();
+
+        final ArrayTable<String, String, Integer> expected = ArrayTable.create(ImmutableList.of("r1", "r2"), ImmutableList.of("c1", "c2"));
+        expected.put("r1", "c1", 1);
+        expected.put("r2", "c2", 4);
+
+        final String text = GsonHelper.getGson().toJson(expected, type);
+
+        System.out.println(text);
+
+        final ArrayTable<String, String, Integer> actual = GsonHelper.getGson().fromJson(text, type);
+
+        assertEquals(expected, actual);
+        assertEquals(expected.rowKeyList(), actual.rowKeyList());
+        assertEquals(expected.columnKeyList(), actual.columnKeyList());
+    }
+
+    @Test
+    void test_table_row_key_named_rowKeys() {
+        final Type type = new TypeToken<Table<String, String, Integer>>() {
+        }.getType();
+
+        final Table<String, String, Integer> expected = ImmutableTable.<String, String, Integer>builder()
+                .put("rowKeys", "c1", 1)
+                .put("r2", "c1", 2)
+                .build();
+
+        assertEquals(expected, GsonHelper.getGson().fromJson(GsonHelper.getGson().toJson(expected, type), type));
+    }
+
+    @Test
+    void test_table_columnar_encoding_malformed() {
+        final Type type = new TypeToken<Table<String, String, Integer>>() {
+        }.getType();
+
+        assertThrows(JsonSyntaxException.class, () -> GsonHelper.getGson().fromJson("{\"rowKeys\":[\"r1\"],\"values\":[[1]]}", type));
+        assertThrows(JsonSyntaxException.class, () -> GsonHelper.getGson().fromJson("{\"rowKeys\":[\"r1\",\"r2\"],\"columnKeys\":[\"c1\"],\"values\":[[1]]}", type));
+        assertThrows(JsonSyntaxException.class, () -> GsonHelper.getGson().fromJson("{\"rowKeys\":[\"r1\"],\"columnKeys\":[\"c1\",\"c2\"],\"values\":[[1]]}", type));
+        assertThrows(JsonSyntaxException.class, () -> GsonHelper.getGson().fromJson("{\"rowKeys\":[\"r1\"],\"columnKeys\":[\"c1\"],\"values\":[[1,2]]}", type));
+        assertThrows(JsonSyntaxException.class, () -> GsonHelper.getGson().fromJson("{\"rowKeys\":[\"r1\",\"r1\"],\"columnKeys\":[\"c1\"],\"values\":[[1],[2]]}", new TypeToken<ArrayTable<String, String, Integer>>() {
+        }.getType()));
+    }
+
+    @Test
+    void test_table_row_key_named_rowKeys_complex_column_keys() {
+        final Gson gson = GsonHelper.registerAll(new GsonBuilder().enableComplexMapKeySerialization()).create();
+
+        final Type type = new TypeToken<Table<String, List<String>, Integer>>() {
+        }.getType();
+
+        final Table<String, List<String>, Integer> expected = HashBasedTable.create();
+        expected.put("rowKeys", ImmutableList.of("a"), 1);
+        expected.put("columnKeys", ImmutableList.of("b"), 2);
+        expected.put("r", ImmutableList.of("c"), 3);
+
+        final String text = gson.toJson(expected, type);
+
+        System.out.println(text);
+
+        assertEquals("{\"rowKeys\":[[[\"a\"],1]],\"columnKeys\":[[[\"b\"],2]],\"r\":[[[\"c\"],3]]}", text);
+        assertEquals(expected, gson.fromJson(text, type));
+        assertEquals(ImmutableTable.of("rowKeys", ImmutableList.of("a"), 1), gson.fromJson("{\"rowKeys\":[[[\"a\"],1]]}", type));
+    }
+
+    @Test
+    void test_table_row_keys_named_like_columnar_members() {
+        final Gson gson = GsonHelper.registerAll(new GsonBuilder().enableComplexMapKeySerialization()).create();
+
+        final Type type = new TypeToken<Table<String, List<String>, Integer>>() {
+        }.getType();
+
+        final Table<String, List<String>, Integer> expected = HashBasedTable.create();
+        expected.put("rowKeys", ImmutableList.of("a"), 1);
+        expected.put("columnKeys", ImmutableList.of("b"), 2);
+        expected.put("values", ImmutableList.of("c"), 3);
+
+        final String text = gson.toJson(expected, type);
+
+        System.out.println(text);
+
+        assertEquals("{\"rowKeys\":[\"rowKeys\",\"columnKeys\",\"values\"],\"columnKeys\":[[\"a\"],[\"b\"],[\"c\"]],\"values\":[[1,null,null],[null,2,null],[null,null,3]]}", text);
+        assertEquals(expected, gson.fromJson(text, type));
+    }
+
+    @Test
+    void test_table_column_keys_are_canonical() {
+        final Type type = new TypeToken<Table<String, String, Integer>>() {
+        }.getType();
+
+        final Table<String, String, Integer> table = GsonHelper.getGson().fromJson("{\"r1\":{\"c\":1},\"r2\":{\"c\":2}}", type);
+
+        assertSame(Iterables.getOnlyElement(table.row("r1").keySet()), Iterables.getOnlyElement(table.row("r2").keySet()));
+    }
+
+    @Test
+    void test_table_column_keys_are_decoded_once() {
+        final AtomicInteger decoded = new AtomicInteger();
+
+        final TypeAdapter<StringBuilder> adapter = new TypeAdapter<StringBuilder>() { // no MapKeyCodec
+
+            @Override
+            public void write(final JsonWriter out, final StringBuilder value) throws IOException {
+                out.value(value.toString());
+            }
+
+            @Override
+            public StringBuilder read(final JsonReader in) throws IOException {
+                decoded.incrementAndGet();
+                return new StringBuilder(in.nextString());
+            }
+        };
+
+        final Gson gson = GsonHelper.registerAll(new GsonBuilder()).registerTypeAdapter(StringBuilder.class, adapter).create();
+
+        final Type type = new TypeToken<Table<String, StringBuilder, Integer>>() {
+        }.getType();
+
+        final Table<String, StringBuilder, Integer> table = gson.fromJson("{\"r1\":{\"a\":1,\"b\":2},\"r2\":{\"a\":3,\"b\":4},\"r3\":{\"b\":5}}", type);
+
+        assertEquals(5, table.size());
+        assertEquals(2, decoded.get());
+    }
+
+    @Test
+    void test_table_subclass_values() {
+        final Type type = new TypeToken<Table<String, String, Animal>>() {
+        }.getType();
+
+        final Table<String, String, Animal> table = ImmutableTable.of("r", "c", new Dog("a", true));
+
+        final Gson nested   = GsonHelper.registerAll(new GsonBuilder()).create();
+        final Gson columnar = GsonHelper.registerAll(new GsonBuilder()).registerTypeAdapterFactory(new TableTypeAdapterFactory().withColumnarEncoding()).create();
+
+        assertEquals("{\"r\":{\"c\":{\"barks\":true,\"name\":\"a\"}}}", nested.toJson(table, type));
+        assertEquals("{\"rowKeys\":[\"r\"],\"columnKeys\":[\"c\"],\"values\":[[{\"barks\":true,\"name\":\"a\"}]]}", columnar.toJson(table, type));
+
+        final Table<String, String, Animal> actual = nested.fromJson(nested.toJson(table, type), type);
+
+        assertEquals("a", actual.get("r", "c").name);
+    }
+
+    @Test
+    void test_table_subclass_keys_wire_format_matches_map_adapter() {
+        final Gson gson = GsonHelper.registerAll(new GsonBuilder().enableComplexMapKeySerialization()).create();
+
+        final Type type = new TypeToken<Table<Animal, Animal, Integer>>() {
+        }.getType();
+        final Type mapType = new TypeToken<Map<Animal, Map<Animal, Integer>>>() {
+        }.getType();
+
+        final Table<Animal, Animal, Integer> table = ImmutableTable.of(new Dog("r", true), new Dog("c", false), 1);
+
+        final String json = gson.toJson(table, type);
+
+        assertEquals("[[{\"barks\":true,\"name\":\"r\"},[[{\"barks\":false,\"name\":\"c\"},1]]]]", json);
+        assertEquals(gson.toJson(table.rowMap(), mapType), json);
+    }
+
+    static class Animal {
+        final String name;
+
+        Animal(final String name) {
+            this.name = name;
+        }
+    }
+
+    static class Dog extends Animal {
+        final boolean barks;
+
+        Dog(final String name, final boolean barks) {
+            super(name);
+            this.barks = barks;
+        }
+    }
+
 }
@@ -0,0 +1,83 @@
+package software.leonov.util.gson;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.common.io.CharStreams;
+
+class TestUtf8Reader {
+
+    private static String read(final Reader reader, final int chunk) throws IOException {
+        final StringBuilder sb  = new StringBuilder();
+        final char[]        buf = new char[chunk];
+        int                 n;
+        while ((n = reader.read(buf, 0, chunk)) != -1)
+            sb.append(buf, 0, n);
+        return sb.toString();
+    }
+
+    @Test
+    void test_well_formed() throws IOException {
+        final String text = "{\"ascii\":\"abc\",\"latin\":\"éü\",\"cjk\":\"漢字\",\"emoji\":\"😀👍\"}";
+
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(text, CharStreams.toString(new Utf8Reader(ByteBuffer.wrap(bytes))));
+        assertEquals(text, read(new Utf8Reader(ByteBuffer.wrap(bytes)), 1)); // surrogate pairs split across reads
+    }
+
+    @Test
+    void test_buffer_position_and_direct_buffers() throws IOException {
+        final byte[] bytes = "xx[\"é\"]".getBytes(StandardCharsets.UTF_8);
+
+        final ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip().position(2);
+
+        assertEquals("[\"é\"]", CharStreams.toString(new Utf8Reader(direct)));
+        assertEquals(2, direct.position());
+    }
+
+    @Test
+    void test_malformed_input_matches_String() throws IOException {
+        final Random random = new Random(42);
+
+        for (int i = 0; i < 10_000; i++) {
+            final byte[] bytes = new byte[random.nextInt(16)];
+            random.nextBytes(bytes);
+
+            assertEquals(new String(bytes, StandardCharsets.UTF_8), read(new Utf8Reader(ByteBuffer.wrap(bytes)), 1 + random.nextInt(4)));
+        }
+    }
+
+    @Test
+    void test_mapped_windows(@TempDir final Path directory) throws IOException {
+        final String text = "[\"a\",\"é\",\"漢字\",\"😀\",\"z😀é漢\"]";
+
+        final Path path = Files.write(directory.resolve("windows.json"), text.getBytes(StandardCharsets.UTF_8));
+
+        for (int windowSize = 4; windowSize <= 16; windowSize++)
+            try (final Reader reader = Utf8Reader.map(path, windowSize)) {
+                assertEquals(text, read(reader, 3), "windowSize = " + windowSize);
+            }
+    }
+
+    @Test
+    void test_mapped_empty_file(@TempDir final Path directory) throws IOException {
+        final Path path = Files.write(directory.resolve("empty.json"), new byte[0]);
+
+        try (final Reader reader = Utf8Reader.map(path, Utf8Reader.WINDOW_SIZE)) {
+            assertEquals(-1, reader.read(new char[8], 0, 8));
+        }
+    }
+
+}